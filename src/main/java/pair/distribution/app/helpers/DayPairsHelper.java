@@ -9,13 +9,18 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import pair.distribution.app.persistence.mongodb.SyncReport;
 import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
 import pair.distribution.app.trello.entities.Company;
 import pair.distribution.app.trello.entities.DayPairs;
@@ -25,58 +30,159 @@ import pair.distribution.app.trello.entities.PairCombinations;
 
 public class DayPairsHelper<E> {
 
+	/**
+	 * Newest days the rotation looks at. Besides the pairs weight index, generation needs no older days.
+	 */
+	public static final int ROTATION_HISTORY_DAYS = 4;
+
 	private static final int THRE_DAYS_BACK = 2;
 
 	private static final int TWO_DAYS_BACK = 1;
 
 	private static final int ONE_DAYS_BACK = 0;
 
+	// partner scores are fractions of pairing days, matching costs are integers
+	private static final int MATCHING_COST_SCALE = 1000;
+
 	private static final Logger logger = LoggerFactory.getLogger(DayPairsHelper.class);
 
+	/**
+	 * How the tracks left open after rotation and company tracks are filled: GREEDY takes the best partner
+	 * track by track, MATCHING pairs all remaining developers with the smallest total partner score.
+	 */
+	public enum PairingEngine {
+		GREEDY, MATCHING;
+
+		public static PairingEngine fromName(String name) {
+			return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+		}
+	}
+
 	private TrelloPairsRepository repository;
+	private String boardId;
 	private boolean everydayRotationMode;
+	private PairsWeightUpdates pairsWeightUpdates;
+	private PairingEngine pairingEngine;
 
 	public DayPairsHelper(TrelloPairsRepository repository, boolean everydayRotationMode) {
-		this.repository = repository;
-		this.everydayRotationMode = everydayRotationMode;
+		this(repository, everydayRotationMode, null);
+	}
+
+	public DayPairsHelper(TrelloPairsRepository repository, boolean everydayRotationMode, PairsWeightUpdates pairsWeightUpdates) {
+		this(repository, everydayRotationMode, pairsWeightUpdates, PairingEngine.GREEDY);
+	}
+
+	public DayPairsHelper(TrelloPairsRepository repository, boolean everydayRotationMode, PairsWeightUpdates pairsWeightUpdates, PairingEngine pairingEngine) {
+		this(repository, null, everydayRotationMode, pairsWeightUpdates, pairingEngine);
 	}
 
-	public void updateDataBaseWithTrelloContent(List<DayPairs> pairs) {
-		removeTodayFromDatabase();
+	/**
+	 * @param boardId the board whose days are synchronized, null to use the whole repository
+	 */
+	public DayPairsHelper(TrelloPairsRepository repository, String boardId, boolean everydayRotationMode, PairsWeightUpdates pairsWeightUpdates,
+			PairingEngine pairingEngine) {
+		this.repository = repository;
+		this.boardId = boardId;
+		this.everydayRotationMode = everydayRotationMode;
+		this.pairsWeightUpdates = pairsWeightUpdates;
+		this.pairingEngine = pairingEngine;
+	}
+
+	/**
+	 * Stores the days of the board and removes a stored today which is not on the board. The stored days are read
+	 * with one query and written with one bulk upsert. The pairs weights are updated only after the write succeeded
+	 * and only for the days it inserted, replaced or removed, so they never count days which were not stored.
+	 */
+	public SyncReport updateDataBaseWithTrelloContent(List<DayPairs> pairs) {
+		Date todayDate = getTodayDate();
+		StoredDays storedDays = findStoredDays(pairs, todayDate);
+		SyncReport report = repository.syncDays(boardId, pairs, todayDate);
+		logger.info("Database updated: {}", report);
+		updatePairsWeights(storedDays, pairs, report);
+		return report;
+	}
+
+	/**
+	 * Updates the pairs weights like {@link #updateDataBaseWithTrelloContent(List)} without writing the days, for
+	 * weights which are only kept in memory.
+	 */
+	public void mergeWeightsWithTrelloContent(List<DayPairs> pairs) {
+		updatePairsWeights(findStoredDays(pairs, getTodayDate()), pairs, null);
+	}
+
+	/**
+	 * In memory counterpart of {@link #updateDataBaseWithTrelloContent(List)}: the stored days without today,
+	 * with every day found on the board replacing the stored day of the same date.
+	 */
+	public List<DayPairs> mergeWithTrelloContent(List<DayPairs> storedPairs, List<DayPairs> boardPairs) {
+		Date todayDate = getTodayDate();
+		Map<Date, DayPairs> result = new HashMap<>();
+		storedPairs.stream().filter(dayPairs -> !dayPairs.getDate().equals(todayDate)).forEach(dayPairs -> result.put(dayPairs.getDate(), dayPairs));
+		boardPairs.stream().forEach(dayPairs -> result.put(dayPairs.getDate(), dayPairs));
+		return new ArrayList<>(result.values());
+	}
+
+	private StoredDays findStoredDays(List<DayPairs> pairs, Date todayDate) {
+		List<Date> dates = new ArrayList<>();
+		dates.add(todayDate);
 		for (DayPairs pairsByDate : pairs) {
-			List<DayPairs> findByDate = repository.findByDate(pairsByDate.getDate());
-			if (findByDate.size() == 1) {
-				logger.info("Update by date found");
-				logger.info("Repository state: {}", findByDate.get(0));
-				logger.info("Board state: {}", pairsByDate);
-				repository.deleteByDate(pairsByDate.getDate());
-				repository.save(pairsByDate);
-				logger.info("Update finished");
-			} else if (findByDate.isEmpty()) {
-				logger.info("No update found. Adding to repository");
-				repository.save(pairsByDate);
-				logger.info("Adding finished");
-			} else {
+			pairsByDate.setBoardId(boardId);
+			dates.add(pairsByDate.getDate());
+		}
+		Map<Date, List<DayPairs>> storedByDate = findByDates(dates).stream().collect(Collectors.groupingBy(DayPairs::getDate));
+		StoredDays result = new StoredDays();
+		// a stored today which is also on the board is replaced, not removed
+		if (pairs.stream().noneMatch(pairsByDate -> pairsByDate.getDate().equals(todayDate))) {
+			result.today = storedByDate.remove(todayDate);
+		}
+		if (result.today != null) {
+			logger.info("Found pairs for today, removing");
+		}
+		for (DayPairs pairsByDate : pairs) {
+			List<DayPairs> findByDate = storedByDate.getOrDefault(pairsByDate.getDate(), Collections.emptyList());
+			if (findByDate.size() > 1) {
 				logger.info("More than one entry found. They are: {}", findByDate);
 				throw new RuntimeException();
 			}
+			result.sameDates.add(findByDate.isEmpty() ? null : findByDate.get(0));
 		}
+		return result;
 	}
 
-	private void removeTodayFromDatabase() {
+	/**
+	 * Without a report every day is applied as read before. With a report only the changes it lists are applied:
+	 * inserted dates are added, replaced dates are replaced, days with the same content are skipped, and the stored
+	 * today is removed only when a day was removed.
+	 */
+	private void updatePairsWeights(StoredDays storedDays, List<DayPairs> pairs, SyncReport report) {
+		if (pairsWeightUpdates == null) {
+			return;
+		}
+		if (storedDays.today != null && (report == null || report.getRemoved() > 0)) {
+			storedDays.today.stream().forEach(pairsWeightUpdates::removeDay);
+		}
+		for (int i = 0; i < pairs.size(); i++) {
+			DayPairs storedDay = storedDays.sameDates.get(i);
+			DayPairs boardDay = pairs.get(i);
+			if (report == null ? storedDay == null : report.isInserted(boardDay.getDate())) {
+				pairsWeightUpdates.addDay(boardDay);
+			} else if (storedDay != null && (report == null || report.isReplaced(boardDay.getDate()))) {
+				pairsWeightUpdates.replaceDay(storedDay, boardDay);
+			}
+		}
+	}
+
+	private List<DayPairs> findByDates(Collection<Date> dates) {
+		return boardId == null ? repository.findByDateIn(dates) : repository.findByBoardIdAndDateIn(boardId, dates);
+	}
+
+	private Date getTodayDate() {
 		Calendar today = Calendar.getInstance();
 		today.set(Calendar.HOUR_OF_DAY, 0);
 		today.clear(Calendar.MINUTE);
 		today.clear(Calendar.SECOND);
 		today.clear(Calendar.MILLISECOND);
-		Date todayDate = today.getTime();
-		List<DayPairs> findByDate = repository.findByDate(todayDate);
-		if (findByDate.size() > 0) {
-			logger.info("Found pairs for today, removing");
-			repository.deleteByDate(todayDate);
-		} else {
-			logger.info("No pairs found for today.");
-		}
+		return today.getTime();
 	}
 
 	public Map<Pair, Integer> buildPairsWeightFromPastPairing(PairCombinations pastPairs,
@@ -97,101 +203,95 @@ public class DayPairsHelper<E> {
 	private Map<Pair, Integer> buildPairsWeghtFromPredicate(PairCombinations pairCombinations,
 			List<Developer> availableDevs, Predicate<? super Pair> filter) {
 		final Map<Pair, Integer> result = new HashMap<>();
-		initPairsInitialWeight(availableDevs, result, false);
+		initPairsInitialWeight(availableDevs, result);
 		pairCombinations.getPairs().stream().filter(filter::test).forEach(pair -> result.put(pair,
 				Integer.valueOf(result.getOrDefault(pair, Integer.valueOf(0)).intValue() + 1)));
 		return result;
 	}
 
 	public void buildDevelopersPairingDays(PairCombinations pastPairs, List<Developer> todayDevs) {
-		todayDevs.stream().forEach(developer -> pastPairs.getPairs().stream().filter(pair -> pair.hasDev(developer))
-				.forEach(pair -> developer.udpatePairingDays()));
+		PairingHistoryStats pairingHistory = PairingHistoryStats.aggregate(pastPairs);
+		todayDevs.stream().forEach(developer -> developer.setPairingDays(developer.getPairingDays() + pairingHistory.getPairingDays(developer)));
 	}
 
 	public void buildDevelopersTracksWeightFromPastPairing(PairCombinations pastPairs,
 			List<Developer> availableDevs) {
-		availableDevs.stream()
-				.forEach(developer -> pastPairs.getPairs().stream().filter(pair -> pair.hasDev(developer))
-						.forEach(pair -> developer.updateTrackWeight(pair.getTrack())));
-	}
-	
-	public void adaptPairsWeight(Map<Pair, Integer> pairsWeight, List<Developer> availableDevs) {
-		List<Developer> newDevelopers = getFilteredDevs(availableDevs, Developer::getNew);
-		pairsWeight.keySet().stream().filter(pair -> !isPairConform(pair, newDevelopers, isPairWithMixedExpirience()))
-				.forEach(pair -> {
-					logger.info("pair with new Developers and needs adaptation. Pair is: {}", pair);
-					addUnconformWeight(pairsWeight, pair);
-				});
-	}
-
-	private void addUnconformWeight(Map<Pair, Integer> pairsWeight, Pair pair) {
-		pairsWeight.put(pair, Integer.valueOf(pairsWeight.get(pair).intValue() + 100));
+		PairingHistoryStats pairingHistory = PairingHistoryStats.aggregate(pastPairs);
+		availableDevs.stream().forEach(developer -> pairingHistory.getTracksWeight(developer)
+				.forEach((track, weight) -> developer.setTrackWeight(track, developer.getTrackWeight(track) + weight.intValue())));
 	}
 
-	private boolean isPairConform(Pair pair, List<Developer> predicateDevelopers, Predicate<? super Pair> predicate) {
-		switch (pair.getDevs().size()) {
-		case 0:
-			return true;
-		case 1:
-			return !predicateDevelopers.contains(pair.getFirstDev());
-		default:
-			return predicateDevelopers.contains(pair.getFirstDev()) || predicateDevelopers.contains(pair.getSecondDev())
-					? predicate.test(pair)
-					: true;
+	public void adaptPairsWeight(Map<Pair, Integer> pairsWeight, List<Developer> availableDevs) {
+		PairsWeightMatrix pairsWeightMatrix = PairsWeightMatrix.fromMap(availableDevs, pairsWeight);
+		adaptPairsWeight(pairsWeightMatrix);
+		pairsWeight.putAll(pairsWeightMatrix.toMap());
+	}
+
+	public void adaptPairsWeight(PairsWeightMatrix pairsWeight) {
+		PairOrdinals pairOrdinals = pairsWeight.pairOrdinals();
+		while (pairOrdinals.next()) {
+			Developer firstDeveloper = pairsWeight.getDeveloper(pairOrdinals.first());
+			Developer secondDeveloper = pairsWeight.getDeveloper(pairOrdinals.second());
+			if (firstDeveloper.getNew() && secondDeveloper.getNew()) {
+				logger.info("pair with new Developers and needs adaptation. Pair is: {} {}", firstDeveloper, secondDeveloper);
+				pairsWeight.addWeight(pairOrdinals, 100 * pairsWeight.getScale());
+			}
 		}
 	}
 
-	private List<Developer> getFilteredDevs(List<Developer> availableDevs, Predicate<? super Developer> predicate) {
-		return availableDevs.stream().filter(predicate).collect(Collectors.toList());
-	}
-
-	private void initPairsInitialWeight(List<Developer> availableDevs, Map<Pair, Integer> result,
-			boolean addSoloPairs) {
-		getAllPairCombinations(availableDevs, addSoloPairs).stream()
-				.forEach(pair -> result.put(pair, Integer.valueOf(0)));
-	}
-
-	private List<Pair> getAllPairCombinations(List<Developer> availableDevs, boolean addSoloPairs) {
-		List<Pair> result = new ArrayList<>();
-		if (availableDevs.isEmpty() || (availableDevs.size() == 1 && !addSoloPairs)) {
-			return result;
-		} else if (availableDevs.size() == 1 && addSoloPairs) {
-			result.add(new Pair(Arrays.asList(availableDevs.get(0))));
-			return result;
+	private void initPairsInitialWeight(List<Developer> availableDevs, Map<Pair, Integer> result) {
+		PairOrdinals pairOrdinals = new PairOrdinals(availableDevs.size());
+		while (pairOrdinals.next()) {
+			result.put(new Pair(Arrays.asList(availableDevs.get(pairOrdinals.first()), availableDevs.get(pairOrdinals.second()))), Integer.valueOf(0));
 		}
-
-		for (int i = 1; i < availableDevs.size(); i++) {
-			result.add(new Pair(Arrays.asList(availableDevs.get(0), availableDevs.get(i))));
-		}
-		result.addAll(getAllPairCombinations(availableDevs.subList(1, availableDevs.size()), addSoloPairs));
-		return result;
 	}
 
 	public DayPairs generateNewDayPairs(List<String> tracks, List<Developer> devs, PairCombinations pairCombination,
 			Map<Pair, Integer> pairsWeight, List<Company> companies) {
+		return generateNewDayPairs(tracks, devs, pairCombination, PairsWeightMatrix.fromMap(devs, pairsWeight), companies);
+	}
+
+	public DayPairs generateNewDayPairs(List<String> tracks, List<Developer> devs, PairCombinations pairCombination,
+			PairsWeightMatrix pairsWeight, List<Company> companies) {
 		DayPairs todayPairs = new DayPairs();
-		List<String> possibleTracks = getPossibleTracks(tracks, devs, companies);
+		TrackRouting trackRouting = new TrackRouting(tracks, devs, companies);
+		List<String> possibleTracks = getPossibleTracks(tracks, devs, companies, trackRouting);
 		List<Developer> availableDevs = new ArrayList<>(devs);
+		PairsWeightHeap availablePairs = new PairsWeightHeap(pairsWeight, availableDevs);
+		PartnerScores partnerScores = new PartnerScores(pairsWeight);
 		boolean rotationTime = pairCombination.isRotationTime(possibleTracks, availableDevs, everydayRotationMode);
 		String soloTrack = getSoloTrack(possibleTracks, availableDevs);
 		for (String track : possibleTracks) {
-			List<Developer> developersForTrack = getDevelopersForTrack(companies, availableDevs, track);
+			Company companyWithTrack = trackRouting.getCompany(track);
+			List<Developer> developersForTrack = companyWithTrack == null ? availableDevs : trackRouting.getDevelopers(companyWithTrack);
 			Pair pair = tryToFindPairFirstDeveloper(track, pairCombination, developersForTrack, rotationTime, soloTrack);
 			availableDevs.removeAll(pair.getDevs());
+			availablePairs.removeDevelopers(pair);
+			trackRouting.removeDevelopers(pair.getDevs());
 			todayPairs.addPair(track, pair);
 
 			// Try to fill company specific tracks here, because they have higher priority
-			if (getCompanyForTrack(companies, track) != null) {
-				Pair fullPair = tryToFindPairSecondDeveloper(pairsWeight, pair, developersForTrack, track);
+			if (companyWithTrack != null) {
+				PairsWeightHeap companyPairs = new PairsWeightHeap(pairsWeight, developersForTrack);
+				companyPairs.removeDevelopers(pair);
+				Pair fullPair = tryToFindPairSecondDeveloper(partnerScores, companyPairs, pair, developersForTrack, track);
 				availableDevs.removeAll(fullPair.getDevs());
+				availablePairs.removeDevelopers(fullPair);
+				trackRouting.removeDevelopers(fullPair.getDevs());
 				todayPairs.addPair(track, fullPair);
 			}
 		}
 
+		if (pairingEngine == PairingEngine.MATCHING) {
+			fillPairsByMatching(todayPairs, possibleTracks, availableDevs, partnerScores, soloTrack);
+			return todayPairs;
+		}
+
 		for (String track : possibleTracks) {
 			// Fill uncompleted pairs
-			Pair fullPair = tryToFindPairSecondDeveloper(pairsWeight, todayPairs.getPairs().get(track), availableDevs, track);
+			Pair fullPair = tryToFindPairSecondDeveloper(partnerScores, availablePairs, todayPairs.getPairs().get(track), availableDevs, track);
 			availableDevs.removeAll(fullPair.getDevs());
+			availablePairs.removeDevelopers(fullPair);
 			todayPairs.addPair(track, fullPair);
 		}
 
@@ -205,20 +305,10 @@ public class DayPairsHelper<E> {
 		return "";
 	}
 
-	private List<Developer> getDevelopersForTrack(List<Company> companies, List<Developer> availableDevs,
-			String track) {
-		Company companyWithTrack = getCompanyForTrack(companies, track);
-		return companyWithTrack == null ? availableDevs : companyWithTrack.getDevs(availableDevs);
-	}
-
-	private Company getCompanyForTrack(List<Company> companies, String track) {
-		return companies.stream().filter(company -> company.isCompanyTrack(track)).findFirst().orElse(null);
-	}
-
-	private Pair tryToFindPairSecondDeveloper(Map<Pair, Integer> pairsWeight, Pair pairWitFirstDev,
+	private Pair tryToFindPairSecondDeveloper(PartnerScores partnerScores, PairsWeightHeap availablePairs, Pair pairWitFirstDev,
 			List<Developer> availableDevs, String track) {
 		if (!pairWitFirstDev.isComplete() && !availableDevs.isEmpty()) {
-			Pair pair = getPairByWeight(pairWitFirstDev, availableDevs, pairsWeight, track);
+			Pair pair = getPairByWeight(pairWitFirstDev, availableDevs, partnerScores, availablePairs, track);
 			if (pair == null && availableDevs.size() == 1) {
 				pair = new Pair(availableDevs);
 			}
@@ -230,14 +320,18 @@ public class DayPairsHelper<E> {
 
 	public List<String> getPossibleTracks(List<String> todaysTracks, List<Developer> todaysDevs,
 			List<Company> companies) {
+		return getPossibleTracks(todaysTracks, todaysDevs, companies, new TrackRouting(todaysTracks, todaysDevs, companies));
+	}
+
+	private List<String> getPossibleTracks(List<String> todaysTracks, List<Developer> todaysDevs, List<Company> companies,
+			TrackRouting trackRouting) {
 		int possibleTracksCount = (int) Math.ceil(todaysDevs.size() / 2.0);
 		List<String> possibleTracks = todaysTracks.size() > possibleTracksCount
 				? todaysTracks.subList(0, possibleTracksCount)
 				: todaysTracks;
+		Set<Company> companiesWithTracks = possibleTracks.stream().map(trackRouting::getCompany).filter(Objects::nonNull).collect(Collectors.toSet());
 		for (Company company : companies) {
-			String companyTrack = company.getCompanyTrack(possibleTracks);
-			List<Developer> companyDevs = company.getDevs(todaysDevs);
-			if (companyDevs.size() <= 1 && companyTrack != null) {
+			if (companiesWithTracks.contains(company) && trackRouting.getDevelopersCount(company) <= 1) {
 				throw new RuntimeException("Company '" + company.getName() + "' has no devs for its tracks");
 			}
 		}
@@ -245,10 +339,6 @@ public class DayPairsHelper<E> {
 		return possibleTracks;
 	}
 
-	private Predicate<? super Pair> isPairWithMixedExpirience() {
-		return p -> !(p.getFirstDev().getNew() && p.getOtherDev(p.getFirstDev()).getNew());
-	}
-
 	private Pair tryToFindPairFirstDeveloper(String track, PairCombinations pairCombination,
 			final List<Developer> availableDevs, boolean rotationRequired, String soloTrack) {
 		Pair trackPairToday = new Pair();
@@ -317,6 +407,95 @@ public class DayPairsHelper<E> {
 		return availablePastDevsForTrack;
 	}
 
+	private void fillPairsByMatching(DayPairs todayPairs, List<String> possibleTracks, List<Developer> availableDevs, PartnerScores partnerScores,
+			String soloTrack) {
+		List<String> openTracks = new ArrayList<>();
+		List<String> emptyTracks = new ArrayList<>();
+		List<Developer> matchingDevs = new ArrayList<>();
+		for (String track : possibleTracks) {
+			Pair pair = todayPairs.getPairs().get(track);
+			if (pair.getDevs().isEmpty()) {
+				emptyTracks.add(track);
+			} else if (!pair.isComplete()) {
+				openTracks.add(track);
+				matchingDevs.add(pair.getDevs().get(0));
+			}
+		}
+		int openTracksCount = openTracks.size();
+		matchingDevs.addAll(availableDevs);
+		int devsCount = matchingDevs.size();
+		PairsWeightMatrix pairsWeight = partnerScores.getPairsWeight();
+		int[] ordinals = matchingDevs.stream().mapToInt(pairsWeight::getOrdinal).toArray();
+		// with an odd count one developer stays solo, like in greedy on the solo track: a vertex for the solo track,
+		// connected only to the developers who may stay there, is matched with that developer
+		int soloOpenTrack = openTracks.indexOf(soloTrack);
+		boolean soloVertex = devsCount % 2 != 0 && (soloOpenTrack >= 0 || emptyTracks.contains(soloTrack));
+		MinWeightMatching matching = new MinWeightMatching(soloVertex ? devsCount + 1 : devsCount);
+		PairOrdinals pairOrdinals = new PairOrdinals(devsCount);
+		while (pairOrdinals.next()) {
+			// developers already on a track can't be paired with each other
+			if (pairOrdinals.second() >= openTracksCount) {
+				String track = pairOrdinals.first() < openTracksCount ? openTracks.get(pairOrdinals.first()) : null;
+				matching.addEdge(pairOrdinals.first(), pairOrdinals.second(), getMatchingCost(partnerScores, ordinals[pairOrdinals.first()],
+						ordinals[pairOrdinals.second()], track));
+			}
+		}
+		if (soloVertex) {
+			if (soloOpenTrack >= 0) {
+				matching.addEdge(soloOpenTrack, devsCount, 0);
+			} else {
+				emptyTracks.remove(soloTrack);
+				for (int i = openTracksCount; i < devsCount; i++) {
+					matching.addEdge(i, devsCount, 0);
+				}
+			}
+		}
+		int[] mates = matching.solve();
+
+		for (int i = 0; i < openTracksCount; i++) {
+			if (mates[i] >= 0 && mates[i] < devsCount) {
+				Pair pair = todayPairs.getPairs().get(openTracks.get(i));
+				pair.addDev(matchingDevs.get(mates[i]));
+				// adding again refreshes the track index of the changed pair
+				todayPairs.addPair(openTracks.get(i), pair);
+				availableDevs.remove(matchingDevs.get(mates[i]));
+			}
+		}
+		List<int[]> newPairs = new ArrayList<>();
+		for (int i = openTracksCount; i < devsCount; i++) {
+			if (mates[i] == devsCount) {
+				availableDevs.remove(matchingDevs.get(i));
+				todayPairs.addPair(soloTrack, new Pair(Arrays.asList(matchingDevs.get(i))));
+			} else if (mates[i] > i || mates[i] < 0) {
+				newPairs.add(new int[] { i, mates[i] });
+			}
+		}
+		newPairs.sort(Comparator.comparingInt(newPair -> newPair[1] < 0 ? Integer.MAX_VALUE
+				: getMatchingCost(partnerScores, ordinals[newPair[0]], ordinals[newPair[1]], null)));
+		for (int i = 0; i < newPairs.size() && i < emptyTracks.size(); i++) {
+			List<Developer> pairDevs = new ArrayList<>();
+			for (int vertex : newPairs.get(i)) {
+				if (vertex >= 0) {
+					pairDevs.add(matchingDevs.get(vertex));
+				}
+			}
+			availableDevs.removeAll(pairDevs);
+			todayPairs.addPair(emptyTracks.get(i), new Pair(pairDevs));
+		}
+	}
+
+	/**
+	 * The partner score greedy picks partners by: of the partner on the track of the first developer, of both
+	 * developers for a new pair whose track is not known yet.
+	 */
+	private int getMatchingCost(PartnerScores partnerScores, int firstOrdinal, int secondOrdinal, String track) {
+		if (firstOrdinal < 0 || secondOrdinal < 0) {
+			return 0;
+		}
+		float score = track == null ? partnerScores.getPairScore(firstOrdinal, secondOrdinal) : partnerScores.getScore(firstOrdinal, secondOrdinal, track);
+		return Math.round(score * MATCHING_COST_SCALE);
+	}
+
 	private void rotateLongestDev(final List<Developer> availableDevs, Pair trackPairToday, PairCombinations pairCombination, String track) {
 		Developer longestDevOnStory = getLongestDevOnStory(pairCombination, track);
 		Developer devToRotate = getDeveloperById(availableDevs, longestDevOnStory);
@@ -337,42 +516,35 @@ public class DayPairsHelper<E> {
 		return trackPairOneDaysBack != null && trackPairTwoDaysBack != null && pairCombination.getPastPairByTrack(THRE_DAYS_BACK, track) != null;
 	}
 
-	private Pair getPairByWeight(Pair pairCandidate, List<Developer> availableDevs, Map<Pair, Integer> pairsWeight, String track) {
+	private Pair getPairByWeight(Pair pairCandidate, List<Developer> availableDevs, PartnerScores partnerScores,
+			PairsWeightHeap availablePairs, String track) {
 		Pair result = null;
 		if (pairCandidate.getDevs().isEmpty()) {
-			result = getPairWithSmallestWeight(availableDevs, pairsWeight);
+			result = availablePairs.peek();
 		} else if (pairCandidate.getDevs().size() == 1) {
-			result = findPairForDevByPairingWeight(pairCandidate.getDevs().get(0), availableDevs, pairsWeight, track);
+			result = findPairForDevByPairingWeight(pairCandidate.getDevs().get(0), availableDevs, partnerScores, track);
 		}
 		return result;
 	}
 
-	private Pair getPairWithSmallestWeight(List<Developer> availableDevs, Map<Pair, Integer> pairsWeight) {
-		return pairsWeight.keySet().stream().filter(pair -> availableDevs.containsAll(pair.getDevs()))
-				.min(Comparator.comparing(pairsWeight::get)).orElse(null);
-	}
-
 	private Pair findPairForDevByPairingWeight(Developer pairFirstDeveloper, List<Developer> availableDevs,
-			Map<Pair, Integer> pairsWeight, String track) {
-		Developer otherDev = pairsWeight.keySet().stream().filter(pair -> pair.hasDev(pairFirstDeveloper))
-				.filter(pair -> availableDevs.contains(pair.getOtherDev(pairFirstDeveloper)))
-				.min(Comparator.comparing(pair -> getWeightRelativeToPairingDays(pair, pairFirstDeveloper,
-						pairsWeight, availableDevs, track)))
-				.map(pair -> pair.getOtherDev(pairFirstDeveloper)).orElse(null);
+			PartnerScores partnerScores, String track) {
+		PairsWeightMatrix pairsWeight = partnerScores.getPairsWeight();
+		int firstOrdinal = pairsWeight.getOrdinal(pairFirstDeveloper);
+		int otherOrdinal = firstOrdinal < 0 ? -1 : partnerScores.getBestPartner(firstOrdinal, getAvailableOrdinals(availableDevs, pairsWeight), track);
+		Developer otherDev = otherOrdinal < 0 ? null : pairsWeight.getDeveloper(otherOrdinal);
 		return new Pair(Arrays.asList(pairFirstDeveloper, otherDev));
 	}
 
-	private float getWeightRelativeToPairingDays(Pair pair, Developer pairFirstDeveloper,
-			Map<Pair, Integer> pairsWeight, List<Developer> availableDevs, String track) {
-		Developer pairOtherDev = getDeveloperById(availableDevs, pair.getOtherDev(pairFirstDeveloper));
-		if (pairOtherDev != null) {
-			float devPairWeightRelativeToPairingDays =  pairOtherDev.getPairingDays() > 0 ? (float) pairsWeight.get(pair) / pairOtherDev.getPairingDays() : 0;
-			float devTrackWeightRelativeToPairingDays =  pairOtherDev.getTrackWeight(track) > 0 ? (float)  pairOtherDev.getTrackWeight(track) / pairOtherDev.getPairingDays() : 0;
-			
-			return devPairWeightRelativeToPairingDays + devTrackWeightRelativeToPairingDays;
-		} else {
-			return pairsWeight.get(pair);
+	private boolean[] getAvailableOrdinals(List<Developer> availableDevs, PairsWeightMatrix pairsWeight) {
+		boolean[] result = new boolean[pairsWeight.size()];
+		for (Developer developer : availableDevs) {
+			int ordinal = pairsWeight.getOrdinal(developer);
+			if (ordinal >= 0) {
+				result[ordinal] = true;
+			}
 		}
+		return result;
 	}
 
 	private Developer getLongestDevOnStory(PairCombinations pairCombination, String track) {
@@ -424,20 +596,41 @@ public class DayPairsHelper<E> {
 
 	public void setBuildPair(Collection<Pair> pairs, Map<Pair, Integer> buildPairsWeight) {
 		List<Pair> pairsAsList = pairs.stream().collect(Collectors.toList());
-		getPairWithMinWeightValue(pairsAsList, buildPairsWeight, pair -> true).setBuildPair(true);
+		getPairWithMinWeightValue(pairsAsList, pair -> buildPairsWeight.get(pair) != null, buildPairsWeight::get, pair -> true).setBuildPair(true);
+	}
+
+	public void setBuildPair(Collection<Pair> pairs, PairsWeightMatrix buildPairsWeight) {
+		List<Pair> pairsAsList = pairs.stream().collect(Collectors.toList());
+		getPairWithMinWeightValue(pairsAsList, buildPairsWeight::hasPair, buildPairsWeight::getWeight, pair -> true).setBuildPair(true);
 	}
 
 	public void setCommunityPair(Collection<Pair> pairs, Map<Pair, Integer> communityPairsWeight) {
 		List<Pair> pairsAsList = pairs.stream().collect(Collectors.toList());
-		getPairWithMinWeightValue(pairsAsList, communityPairsWeight, pair -> !pair.isBuildPair())
+		getPairWithMinWeightValue(pairsAsList, pair -> communityPairsWeight.get(pair) != null, communityPairsWeight::get, pair -> !pair.isBuildPair())
 				.setCommunityPair(true);
 
 	}
 
-	private Pair getPairWithMinWeightValue(List<Pair> pairs, Map<Pair, Integer> pairsWeight,
+	public void setCommunityPair(Collection<Pair> pairs, PairsWeightMatrix communityPairsWeight) {
+		List<Pair> pairsAsList = pairs.stream().collect(Collectors.toList());
+		getPairWithMinWeightValue(pairsAsList, communityPairsWeight::hasPair, communityPairsWeight::getWeight, pair -> !pair.isBuildPair())
+				.setCommunityPair(true);
+	}
+
+	private Pair getPairWithMinWeightValue(List<Pair> pairs, Predicate<? super Pair> hasWeight, ToIntFunction<Pair> pairsWeight,
 			Predicate<? super Pair> skipPair) {
-		return pairs.stream().filter(pair -> pairsWeight.get(pair) != null).filter(skipPair)
-				.min(Comparator.comparing(pairsWeight::get))
+		return pairs.stream().filter(hasWeight).filter(skipPair)
+				.min(Comparator.comparingInt(pairsWeight))
 				.orElseGet(() -> pairs.get(new Random().nextInt(pairs.size())));
 	}
+
+	/**
+	 * Stored days of a board update: the stored today, which is removed, and the stored day of the date of every
+	 * board day, null for a new date.
+	 */
+	private static class StoredDays {
+
+		private List<DayPairs> today;
+		private List<DayPairs> sameDates = new ArrayList<>();
+	}
 }
@@ -0,0 +1,266 @@
+package pair.distribution.app.helpers;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Pairing history where a day counts less the older it is: its weight halves every half life days and days
+ * older than the window are dropped. All counters are scaled to the newest day, so a newer day multiplies
+ * them once and then adds its pairs with weight 1. Only days inside the window are kept, as
+ * {@link PackedPairs}. Pair weights, pairing days and track weights are handed out in hundredths of a pairing,
+ * so an old pairing still weighs more than none; partner scores divide them by each other and don't change.
+ */
+public class DecayedPairingHistory implements PairingHistory {
+
+	public static final int WEIGHT_SCALE = 100;
+
+	private double halfLifeDays;
+	private int windowDays;
+	private long newestDay;
+	private TreeMap<Long, long[]> days;
+	private Map<String, Integer> ordinals;
+	private List<String> developerIds;
+	private Map<String, Integer> trackOrdinals;
+	private List<String> tracks;
+	private Map<PairWeightType, double[]> pairsWeight;
+	private double[] pairingDays;
+	private Map<String, Map<String, Double>> tracksWeight;
+
+	/**
+	 * @param halfLifeDays days after which a pairing counts half, 0 to keep full weight
+	 * @param windowDays days kept in the history, 0 to keep all days
+	 */
+	public DecayedPairingHistory(double halfLifeDays, int windowDays) {
+		this.halfLifeDays = halfLifeDays;
+		this.windowDays = windowDays;
+		this.newestDay = Long.MIN_VALUE;
+		this.days = new TreeMap<>();
+		this.ordinals = new HashMap<>();
+		this.developerIds = new ArrayList<>();
+		this.trackOrdinals = new HashMap<>();
+		this.tracks = new ArrayList<>();
+		this.pairsWeight = new EnumMap<>(PairWeightType.class);
+		for (PairWeightType type : PairWeightType.values()) {
+			pairsWeight.put(type, new double[0]);
+		}
+		this.pairingDays = new double[0];
+		this.tracksWeight = new HashMap<>();
+	}
+
+	public static long toEpochDay(Date date) {
+		return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+	}
+
+	@Override
+	public void addDay(Date date, List<Pair> pairs) {
+		long day = toEpochDay(date);
+		if (day > newestDay) {
+			moveNewestDay(day);
+		}
+		if (isInWindow(day)) {
+			long[] newPairs = pairs.stream().filter(pair -> !pair.getDevs().isEmpty()).mapToLong(this::pack).toArray();
+			long[] dayPairs = days.get(day);
+			if (dayPairs == null) {
+				days.put(day, newPairs);
+			} else {
+				long[] allPairs = Arrays.copyOf(dayPairs, dayPairs.length + newPairs.length);
+				System.arraycopy(newPairs, 0, allPairs, dayPairs.length, newPairs.length);
+				days.put(day, allPairs);
+			}
+			double dayWeight = getDayWeight(day);
+			for (long packedPair : newPairs) {
+				addPair(packedPair, dayWeight);
+			}
+		}
+	}
+
+	@Override
+	public void removeDay(Date date, List<Pair> pairs) {
+		long day = toEpochDay(date);
+		long[] dayPairs = days.get(day);
+		if (dayPairs == null) {
+			return;
+		}
+		double dayWeight = getDayWeight(day);
+		int size = dayPairs.length;
+		for (Pair pair : pairs) {
+			long devs = getPackedDevs(pair);
+			for (int i = 0; devs != 0 && i < size; i++) {
+				if (PackedPairs.devsOf(dayPairs[i]) == devs) {
+					addPair(dayPairs[i], -dayWeight);
+					dayPairs[i] = dayPairs[--size];
+					break;
+				}
+			}
+		}
+		if (size == 0) {
+			days.remove(day);
+		} else if (size < dayPairs.length) {
+			days.put(day, Arrays.copyOf(dayPairs, size));
+		}
+	}
+
+	public int getDaysCount() {
+		return days.size();
+	}
+
+	public double getPairWeight(Developer firstDeveloper, Developer secondDeveloper, PairWeightType type) {
+		Integer first = ordinals.get(firstDeveloper.getId());
+		Integer second = ordinals.get(secondDeveloper.getId());
+		return first == null || second == null ? 0 : pairsWeight.get(type)[PairOrdinals.index(first.intValue(), second.intValue())];
+	}
+
+	@Override
+	public PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, PairWeightType type) {
+		PairsWeightMatrix result = new PairsWeightMatrix(availableDevs, WEIGHT_SCALE);
+		double[] weights = pairsWeight.get(type);
+		int[] sourceOrdinals = new int[result.size()];
+		for (int i = 0; i < sourceOrdinals.length; i++) {
+			sourceOrdinals[i] = ordinals.getOrDefault(result.getDeveloper(i).getId(), Integer.valueOf(-1)).intValue();
+		}
+		PairOrdinals pairOrdinals = result.pairOrdinals();
+		while (pairOrdinals.next()) {
+			int first = sourceOrdinals[pairOrdinals.first()];
+			int second = sourceOrdinals[pairOrdinals.second()];
+			if (first >= 0 && second >= 0) {
+				result.setWeight(pairOrdinals.first(), pairOrdinals.second(), round(weights[PairOrdinals.index(first, second)]));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void applyTo(List<Developer> developers) {
+		for (Developer developer : developers) {
+			Integer ordinal = ordinals.get(developer.getId());
+			developer.setPairingDays(ordinal == null ? 0 : round(pairingDays[ordinal.intValue()]));
+			tracksWeight.getOrDefault(developer.getId(), new HashMap<>()).forEach((track, weight) -> developer.setTrackWeight(track, round(weight.doubleValue())));
+		}
+	}
+
+	@Override
+	public DecayedPairingHistory copy() {
+		DecayedPairingHistory result = new DecayedPairingHistory(halfLifeDays, windowDays);
+		result.newestDay = newestDay;
+		days.forEach((day, dayPairs) -> result.days.put(day, dayPairs.clone()));
+		result.ordinals.putAll(ordinals);
+		result.developerIds.addAll(developerIds);
+		result.trackOrdinals.putAll(trackOrdinals);
+		result.tracks.addAll(tracks);
+		pairsWeight.forEach((type, weights) -> result.pairsWeight.put(type, weights.clone()));
+		result.pairingDays = pairingDays.clone();
+		tracksWeight.forEach((developerId, developerTracksWeight) -> result.tracksWeight.put(developerId, new HashMap<>(developerTracksWeight)));
+		return result;
+	}
+
+	private void moveNewestDay(long day) {
+		if (newestDay != Long.MIN_VALUE) {
+			double factor = getDecay(day - newestDay);
+			if (factor != 1) {
+				pairsWeight.values().stream().forEach(weights -> multiply(weights, factor));
+				multiply(pairingDays, factor);
+				tracksWeight.values().stream().forEach(developerTracksWeight -> developerTracksWeight.replaceAll((track, weight) -> weight * factor));
+			}
+		}
+		newestDay = day;
+		while (!days.isEmpty() && !isInWindow(days.firstKey().longValue())) {
+			Map.Entry<Long, long[]> oldestDay = days.pollFirstEntry();
+			double dayWeight = getDayWeight(oldestDay.getKey().longValue());
+			for (long packedPair : oldestDay.getValue()) {
+				addPair(packedPair, -dayWeight);
+			}
+		}
+	}
+
+	private void addPair(long packedPair, double delta) {
+		String track = tracks.get(PackedPairs.trackOf(packedPair));
+		int first = PackedPairs.firstOf(packedPair);
+		int second = PackedPairs.secondOf(packedPair);
+		addDeveloperDays(first, track, delta);
+		if (second >= 0) {
+			addDeveloperDays(second, track, delta);
+			int index = PairOrdinals.index(first, second);
+			for (PairWeightType type : PairWeightType.values()) {
+				if (type.test(packedPair)) {
+					pairsWeight.get(type)[index] += delta;
+				}
+			}
+		}
+	}
+
+	private void addDeveloperDays(int ordinal, String track, double delta) {
+		pairingDays[ordinal] += delta;
+		tracksWeight.computeIfAbsent(developerIds.get(ordinal), id -> new HashMap<>()).merge(track, Double.valueOf(delta), Double::sum);
+	}
+
+	private long pack(Pair pair) {
+		int second = pair.isComplete() ? getOrAddOrdinal(pair.getSecondDev()) : -1;
+		String track = pair.getTrack();
+		int trackOrdinal = trackOrdinals.computeIfAbsent(track, key -> {
+			tracks.add(key);
+			return Integer.valueOf(tracks.size() - 1);
+		}).intValue();
+		return PackedPairs.pack(getOrAddOrdinal(pair.getFirstDev()), second, trackOrdinal, PackedPairs.flagsOf(pair));
+	}
+
+	/**
+	 * @return the packed developers of the pair, 0 when one of them has no history
+	 */
+	private long getPackedDevs(Pair pair) {
+		if (pair.getDevs().isEmpty()) {
+			return 0;
+		}
+		Integer first = ordinals.get(pair.getFirstDev().getId());
+		Integer second = pair.isComplete() ? ordinals.get(pair.getSecondDev().getId()) : Integer.valueOf(-1);
+		return first == null || second == null ? 0 : PackedPairs.devsOf(PackedPairs.pack(first.intValue(), second.intValue(), -1, 0));
+	}
+
+	private int getOrAddOrdinal(Developer developer) {
+		Integer ordinal = ordinals.get(developer.getId());
+		if (ordinal != null) {
+			return ordinal.intValue();
+		}
+		int newOrdinal = ordinals.size();
+		ordinals.put(developer.getId(), Integer.valueOf(newOrdinal));
+		developerIds.add(developer.getId());
+		if (pairingDays.length <= newOrdinal) {
+			int capacity = Math.max(8, pairingDays.length * 2);
+			pairingDays = Arrays.copyOf(pairingDays, capacity);
+			pairsWeight.replaceAll((type, weights) -> Arrays.copyOf(weights, PairOrdinals.count(capacity)));
+		}
+		return newOrdinal;
+	}
+
+	private boolean isInWindow(long day) {
+		return windowDays <= 0 || newestDay - day < windowDays;
+	}
+
+	private double getDayWeight(long day) {
+		return getDecay(newestDay - day);
+	}
+
+	private double getDecay(long age) {
+		return halfLifeDays > 0 ? Math.pow(0.5, age / halfLifeDays) : 1;
+	}
+
+	private static void multiply(double[] values, double factor) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] *= factor;
+		}
+	}
+
+	private static int round(double value) {
+		return (int) Math.round(value * WEIGHT_SCALE);
+	}
+}
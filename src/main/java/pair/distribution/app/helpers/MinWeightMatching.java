@@ -0,0 +1,558 @@
+package pair.distribution.app.helpers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Minimum weight maximum cardinality matching in a general graph, using Edmonds' blossom algorithm with
+ * integer dual variables (O(n^3)). Edge costs are turned into positive weights, so the maximum weight
+ * matching among the maximum cardinality ones is the one with the smallest total cost.
+ */
+public class MinWeightMatching {
+
+	private int vertexCount;
+	private List<int[]> edgeList;
+
+	// state of one solve() run, named like in the classic description of the algorithm
+	private int[][] edges;
+	private int[] endpoint;
+	private int[][] neighbend;
+	private int[] mate;
+	private int[] label;
+	private int[] labelend;
+	private int[] inblossom;
+	private int[] blossomparent;
+	private List<List<Integer>> blossomchilds;
+	private int[] blossombase;
+	private List<List<Integer>> blossomendps;
+	private int[] bestedge;
+	private List<List<Integer>> blossombestedges;
+	private Deque<Integer> unusedblossoms;
+	private long[] dualvar;
+	private boolean[] allowedge;
+	private Deque<Integer> queue;
+
+	public MinWeightMatching(int vertexCount) {
+		this.vertexCount = vertexCount;
+		this.edgeList = new ArrayList<>();
+	}
+
+	public void addEdge(int first, int second, int cost) {
+		if (first == second || first < 0 || second < 0 || first >= vertexCount || second >= vertexCount) {
+			throw new IllegalArgumentException("Invalid edge: " + first + "-" + second);
+		}
+		edgeList.add(new int[] { first, second, cost });
+	}
+
+	/**
+	 * @return the mate of every vertex, -1 for vertices which stay unmatched
+	 */
+	public int[] solve() {
+		init();
+		for (int stage = 0; stage < vertexCount; stage++) {
+			if (!augmentOnce()) {
+				break;
+			}
+			for (int b = vertexCount; b < 2 * vertexCount; b++) {
+				if (blossomparent[b] == -1 && blossombase[b] >= 0 && label[b] == 1 && dualvar[b] == 0) {
+					expandBlossom(b, true);
+				}
+			}
+		}
+		int[] result = new int[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			result[v] = mate[v] >= 0 ? endpoint[mate[v]] : -1;
+		}
+		return result;
+	}
+
+	private void init() {
+		int edgeCount = edgeList.size();
+		int maxCost = 0;
+		for (int[] edge : edgeList) {
+			maxCost = Math.max(maxCost, edge[2]);
+		}
+		edges = new int[edgeCount][];
+		int maxWeight = 0;
+		for (int k = 0; k < edgeCount; k++) {
+			int[] edge = edgeList.get(k);
+			edges[k] = new int[] { edge[0], edge[1], maxCost + 1 - edge[2] };
+			maxWeight = Math.max(maxWeight, edges[k][2]);
+		}
+		endpoint = new int[2 * edgeCount];
+		int[] degrees = new int[vertexCount];
+		for (int k = 0; k < edgeCount; k++) {
+			endpoint[2 * k] = edges[k][0];
+			endpoint[2 * k + 1] = edges[k][1];
+			degrees[edges[k][0]]++;
+			degrees[edges[k][1]]++;
+		}
+		neighbend = new int[vertexCount][];
+		for (int v = 0; v < vertexCount; v++) {
+			neighbend[v] = new int[degrees[v]];
+			degrees[v] = 0;
+		}
+		for (int k = 0; k < edgeCount; k++) {
+			int i = edges[k][0];
+			int j = edges[k][1];
+			neighbend[i][degrees[i]++] = 2 * k + 1;
+			neighbend[j][degrees[j]++] = 2 * k;
+		}
+		mate = new int[vertexCount];
+		Arrays.fill(mate, -1);
+		label = new int[2 * vertexCount];
+		labelend = new int[2 * vertexCount];
+		Arrays.fill(labelend, -1);
+		inblossom = new int[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			inblossom[v] = v;
+		}
+		blossomparent = new int[2 * vertexCount];
+		Arrays.fill(blossomparent, -1);
+		blossomchilds = new ArrayList<>(Collections.nCopies(2 * vertexCount, (List<Integer>) null));
+		blossombase = new int[2 * vertexCount];
+		for (int v = 0; v < 2 * vertexCount; v++) {
+			blossombase[v] = v < vertexCount ? v : -1;
+		}
+		blossomendps = new ArrayList<>(Collections.nCopies(2 * vertexCount, (List<Integer>) null));
+		bestedge = new int[2 * vertexCount];
+		blossombestedges = new ArrayList<>(Collections.nCopies(2 * vertexCount, (List<Integer>) null));
+		unusedblossoms = new ArrayDeque<>();
+		for (int b = vertexCount; b < 2 * vertexCount; b++) {
+			unusedblossoms.push(b);
+		}
+		dualvar = new long[2 * vertexCount];
+		Arrays.fill(dualvar, 0, vertexCount, maxWeight);
+		allowedge = new boolean[edgeCount];
+		queue = new ArrayDeque<>();
+	}
+
+	private boolean augmentOnce() {
+		Arrays.fill(label, 0);
+		Arrays.fill(bestedge, -1);
+		for (int b = vertexCount; b < 2 * vertexCount; b++) {
+			blossombestedges.set(b, null);
+		}
+		Arrays.fill(allowedge, false);
+		queue.clear();
+		for (int v = 0; v < vertexCount; v++) {
+			if (mate[v] == -1 && label[inblossom[v]] == 0) {
+				assignLabel(v, 1, -1);
+			}
+		}
+		while (true) {
+			if (scanQueue()) {
+				return true;
+			}
+			int deltatype = -1;
+			long delta = 0;
+			int deltaedge = -1;
+			int deltablossom = -1;
+			for (int v = 0; v < vertexCount; v++) {
+				if (label[inblossom[v]] == 0 && bestedge[v] != -1) {
+					long d = slack(bestedge[v]);
+					if (deltatype == -1 || d < delta) {
+						delta = d;
+						deltatype = 2;
+						deltaedge = bestedge[v];
+					}
+				}
+			}
+			for (int b = 0; b < 2 * vertexCount; b++) {
+				if (blossomparent[b] == -1 && label[b] == 1 && bestedge[b] != -1) {
+					long d = slack(bestedge[b]) / 2;
+					if (deltatype == -1 || d < delta) {
+						delta = d;
+						deltatype = 3;
+						deltaedge = bestedge[b];
+					}
+				}
+			}
+			for (int b = vertexCount; b < 2 * vertexCount; b++) {
+				if (blossombase[b] >= 0 && blossomparent[b] == -1 && label[b] == 2 && (deltatype == -1 || dualvar[b] < delta)) {
+					delta = dualvar[b];
+					deltatype = 4;
+					deltablossom = b;
+				}
+			}
+			if (deltatype == -1) {
+				// no further improvement possible, the matching has maximum cardinality
+				deltatype = 1;
+				delta = Long.MAX_VALUE;
+				for (int v = 0; v < vertexCount; v++) {
+					delta = Math.min(delta, dualvar[v]);
+				}
+				delta = Math.max(0, delta);
+			}
+			for (int v = 0; v < vertexCount; v++) {
+				if (label[inblossom[v]] == 1) {
+					dualvar[v] -= delta;
+				} else if (label[inblossom[v]] == 2) {
+					dualvar[v] += delta;
+				}
+			}
+			for (int b = vertexCount; b < 2 * vertexCount; b++) {
+				if (blossombase[b] >= 0 && blossomparent[b] == -1) {
+					if (label[b] == 1) {
+						dualvar[b] += delta;
+					} else if (label[b] == 2) {
+						dualvar[b] -= delta;
+					}
+				}
+			}
+			if (deltatype == 1) {
+				return false;
+			} else if (deltatype == 2) {
+				allowedge[deltaedge] = true;
+				int i = edges[deltaedge][0];
+				if (label[inblossom[i]] == 0) {
+					i = edges[deltaedge][1];
+				}
+				queue.push(i);
+			} else if (deltatype == 3) {
+				allowedge[deltaedge] = true;
+				queue.push(edges[deltaedge][0]);
+			} else {
+				expandBlossom(deltablossom, false);
+			}
+		}
+	}
+
+	private boolean scanQueue() {
+		while (!queue.isEmpty()) {
+			int v = queue.pop();
+			for (int p : neighbend[v]) {
+				int k = p / 2;
+				int w = endpoint[p];
+				if (inblossom[v] == inblossom[w]) {
+					continue;
+				}
+				long kslack = 0;
+				if (!allowedge[k]) {
+					kslack = slack(k);
+					if (kslack <= 0) {
+						allowedge[k] = true;
+					}
+				}
+				if (allowedge[k]) {
+					if (label[inblossom[w]] == 0) {
+						assignLabel(w, 2, p ^ 1);
+					} else if (label[inblossom[w]] == 1) {
+						int base = scanBlossom(v, w);
+						if (base >= 0) {
+							addBlossom(base, k);
+						} else {
+							augmentMatching(k);
+							return true;
+						}
+					} else if (label[w] == 0) {
+						label[w] = 2;
+						labelend[w] = p ^ 1;
+					}
+				} else if (label[inblossom[w]] == 1) {
+					int b = inblossom[v];
+					if (bestedge[b] == -1 || kslack < slack(bestedge[b])) {
+						bestedge[b] = k;
+					}
+				} else if (label[w] == 0) {
+					if (bestedge[w] == -1 || kslack < slack(bestedge[w])) {
+						bestedge[w] = k;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private long slack(int k) {
+		return dualvar[edges[k][0]] + dualvar[edges[k][1]] - 2L * edges[k][2];
+	}
+
+	private List<Integer> blossomLeaves(int b) {
+		List<Integer> result = new ArrayList<>();
+		addBlossomLeaves(b, result);
+		return result;
+	}
+
+	private void addBlossomLeaves(int b, List<Integer> result) {
+		if (b < vertexCount) {
+			result.add(b);
+		} else {
+			for (int child : blossomchilds.get(b)) {
+				addBlossomLeaves(child, result);
+			}
+		}
+	}
+
+	private void assignLabel(int w, int t, int p) {
+		int b = inblossom[w];
+		label[w] = label[b] = t;
+		labelend[w] = labelend[b] = p;
+		bestedge[w] = bestedge[b] = -1;
+		if (t == 1) {
+			blossomLeaves(b).forEach(queue::push);
+		} else if (t == 2) {
+			int base = blossombase[b];
+			assignLabel(endpoint[mate[base]], 1, mate[base] ^ 1);
+		}
+	}
+
+	private int scanBlossom(int v, int w) {
+		List<Integer> path = new ArrayList<>();
+		int base = -1;
+		while (v != -1 || w != -1) {
+			int b = inblossom[v];
+			if ((label[b] & 4) != 0) {
+				base = blossombase[b];
+				break;
+			}
+			path.add(b);
+			label[b] = 5;
+			if (labelend[b] == -1) {
+				v = -1;
+			} else {
+				v = endpoint[labelend[b]];
+				b = inblossom[v];
+				v = endpoint[labelend[b]];
+			}
+			if (w != -1) {
+				int swap = v;
+				v = w;
+				w = swap;
+			}
+		}
+		for (int b : path) {
+			label[b] = 1;
+		}
+		return base;
+	}
+
+	private void addBlossom(int base, int k) {
+		int v = edges[k][0];
+		int w = edges[k][1];
+		int bb = inblossom[base];
+		int bv = inblossom[v];
+		int bw = inblossom[w];
+		int b = unusedblossoms.pop();
+		blossombase[b] = base;
+		blossomparent[b] = -1;
+		blossomparent[bb] = b;
+		List<Integer> path = new ArrayList<>();
+		List<Integer> endps = new ArrayList<>();
+		while (bv != bb) {
+			blossomparent[bv] = b;
+			path.add(bv);
+			endps.add(labelend[bv]);
+			v = endpoint[labelend[bv]];
+			bv = inblossom[v];
+		}
+		path.add(bb);
+		Collections.reverse(path);
+		Collections.reverse(endps);
+		endps.add(2 * k);
+		while (bw != bb) {
+			blossomparent[bw] = b;
+			path.add(bw);
+			endps.add(labelend[bw] ^ 1);
+			w = endpoint[labelend[bw]];
+			bw = inblossom[w];
+		}
+		blossomchilds.set(b, path);
+		blossomendps.set(b, endps);
+		label[b] = 1;
+		labelend[b] = labelend[bb];
+		dualvar[b] = 0;
+		for (int leaf : blossomLeaves(b)) {
+			if (label[inblossom[leaf]] == 2) {
+				queue.push(leaf);
+			}
+			inblossom[leaf] = b;
+		}
+		int[] bestedgeto = new int[2 * vertexCount];
+		Arrays.fill(bestedgeto, -1);
+		for (int child : path) {
+			List<Integer> neighbourEdges = blossombestedges.get(child);
+			if (neighbourEdges == null) {
+				neighbourEdges = new ArrayList<>();
+				for (int leaf : blossomLeaves(child)) {
+					for (int p : neighbend[leaf]) {
+						neighbourEdges.add(p / 2);
+					}
+				}
+			}
+			for (int edge : neighbourEdges) {
+				int j = inblossom[edges[edge][1]] == b ? edges[edge][0] : edges[edge][1];
+				int bj = inblossom[j];
+				if (bj != b && label[bj] == 1 && (bestedgeto[bj] == -1 || slack(edge) < slack(bestedgeto[bj]))) {
+					bestedgeto[bj] = edge;
+				}
+			}
+			blossombestedges.set(child, null);
+			bestedge[child] = -1;
+		}
+		List<Integer> bestEdges = new ArrayList<>();
+		for (int edge : bestedgeto) {
+			if (edge != -1) {
+				bestEdges.add(edge);
+			}
+		}
+		blossombestedges.set(b, bestEdges);
+		bestedge[b] = -1;
+		for (int edge : bestEdges) {
+			if (bestedge[b] == -1 || slack(edge) < slack(bestedge[b])) {
+				bestedge[b] = edge;
+			}
+		}
+	}
+
+	private void expandBlossom(int b, boolean endstage) {
+		List<Integer> childs = blossomchilds.get(b);
+		for (int s : childs) {
+			blossomparent[s] = -1;
+			if (s < vertexCount) {
+				inblossom[s] = s;
+			} else if (endstage && dualvar[s] == 0) {
+				expandBlossom(s, endstage);
+			} else {
+				for (int leaf : blossomLeaves(s)) {
+					inblossom[leaf] = s;
+				}
+			}
+		}
+		if (!endstage && label[b] == 2) {
+			List<Integer> endps = blossomendps.get(b);
+			int entrychild = inblossom[endpoint[labelend[b] ^ 1]];
+			int j = childs.indexOf(entrychild);
+			int jstep;
+			int endptrick;
+			if ((j & 1) != 0) {
+				j -= childs.size();
+				jstep = 1;
+				endptrick = 0;
+			} else {
+				jstep = -1;
+				endptrick = 1;
+			}
+			int p = labelend[b];
+			while (j != 0) {
+				label[endpoint[p ^ 1]] = 0;
+				label[endpoint[at(endps, j - endptrick) ^ endptrick ^ 1]] = 0;
+				assignLabel(endpoint[p ^ 1], 2, p);
+				allowedge[at(endps, j - endptrick) / 2] = true;
+				j += jstep;
+				p = at(endps, j - endptrick) ^ endptrick;
+				allowedge[p / 2] = true;
+				j += jstep;
+			}
+			int bv = at(childs, j);
+			label[endpoint[p ^ 1]] = label[bv] = 2;
+			labelend[endpoint[p ^ 1]] = labelend[bv] = p;
+			bestedge[bv] = -1;
+			j += jstep;
+			while (at(childs, j) != entrychild) {
+				bv = at(childs, j);
+				if (label[bv] == 1) {
+					j += jstep;
+					continue;
+				}
+				int labeled = -1;
+				for (int leaf : blossomLeaves(bv)) {
+					if (label[leaf] != 0) {
+						labeled = leaf;
+						break;
+					}
+				}
+				if (labeled >= 0) {
+					label[labeled] = 0;
+					label[endpoint[mate[blossombase[bv]]]] = 0;
+					assignLabel(labeled, 2, labelend[labeled]);
+				}
+				j += jstep;
+			}
+		}
+		label[b] = labelend[b] = -1;
+		blossomchilds.set(b, null);
+		blossomendps.set(b, null);
+		blossombase[b] = -1;
+		blossombestedges.set(b, null);
+		bestedge[b] = -1;
+		unusedblossoms.push(b);
+	}
+
+	private void augmentBlossom(int b, int v) {
+		int t = v;
+		while (blossomparent[t] != b) {
+			t = blossomparent[t];
+		}
+		if (t >= vertexCount) {
+			augmentBlossom(t, v);
+		}
+		List<Integer> childs = blossomchilds.get(b);
+		List<Integer> endps = blossomendps.get(b);
+		int i = childs.indexOf(t);
+		int j = i;
+		int jstep;
+		int endptrick;
+		if ((i & 1) != 0) {
+			j -= childs.size();
+			jstep = 1;
+			endptrick = 0;
+		} else {
+			jstep = -1;
+			endptrick = 1;
+		}
+		while (j != 0) {
+			j += jstep;
+			t = at(childs, j);
+			int p = at(endps, j - endptrick) ^ endptrick;
+			if (t >= vertexCount) {
+				augmentBlossom(t, endpoint[p]);
+			}
+			j += jstep;
+			t = at(childs, j);
+			if (t >= vertexCount) {
+				augmentBlossom(t, endpoint[p ^ 1]);
+			}
+			mate[endpoint[p]] = p ^ 1;
+			mate[endpoint[p ^ 1]] = p;
+		}
+		Collections.rotate(childs, -i);
+		Collections.rotate(endps, -i);
+		blossombase[b] = blossombase[childs.get(0)];
+	}
+
+	private void augmentMatching(int k) {
+		int[][] starts = { { edges[k][0], 2 * k + 1 }, { edges[k][1], 2 * k } };
+		for (int[] start : starts) {
+			int s = start[0];
+			int p = start[1];
+			while (true) {
+				int bs = inblossom[s];
+				if (bs >= vertexCount) {
+					augmentBlossom(bs, s);
+				}
+				mate[s] = p;
+				if (labelend[bs] == -1) {
+					break;
+				}
+				int t = endpoint[labelend[bs]];
+				int bt = inblossom[t];
+				s = endpoint[labelend[bt]];
+				int j = endpoint[labelend[bt] ^ 1];
+				if (bt >= vertexCount) {
+					augmentBlossom(bt, j);
+				}
+				mate[j] = labelend[bt];
+				p = labelend[bt] ^ 1;
+			}
+		}
+	}
+
+	private static int at(List<Integer> list, int index) {
+		return list.get(index < 0 ? index + list.size() : index);
+	}
+}
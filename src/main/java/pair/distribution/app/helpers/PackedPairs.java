@@ -0,0 +1,96 @@
+package pair.distribution.app.helpers;
+
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Immutable pairs packed into a long: developer ordinals in bits 0-19 and 20-39, the track ordinal in bits
+ * 40-55 and the flags in bits 56-63. Every field is stored plus one, so 0 marks a missing developer or track.
+ * Two complete pairs have the same developers when their {@link #devsOf(long)} values are equal, which is
+ * what {@link Pair#equals(Object)} compares.
+ */
+public final class PackedPairs {
+
+	public static final int BUILD = 1;
+	public static final int COMMUNITY = 1 << 1;
+	public static final int OPS = 1 << 2;
+	public static final int LOCKED = 1 << 3;
+
+	public static final int MAX_DEVELOPER_ORDINAL = (1 << 20) - 2;
+	public static final int MAX_TRACK_ORDINAL = (1 << 16) - 2;
+
+	private static final int DEVELOPER_BITS = 20;
+	private static final int TRACK_SHIFT = 2 * DEVELOPER_BITS;
+	private static final int FLAGS_SHIFT = 56;
+	private static final long DEVELOPER_MASK = (1L << DEVELOPER_BITS) - 1;
+	private static final long DEVS_MASK = (1L << TRACK_SHIFT) - 1;
+	private static final long TRACK_MASK = (1L << 16) - 1;
+
+	private PackedPairs() {
+	}
+
+	/**
+	 * @param firstOrdinal ordinal of one developer, -1 for none
+	 * @param secondOrdinal ordinal of the other developer, -1 for a solo pair
+	 * @param trackOrdinal ordinal of the track, -1 for none
+	 */
+	public static long pack(int firstOrdinal, int secondOrdinal, int trackOrdinal, int flags) {
+		checkRange(firstOrdinal, MAX_DEVELOPER_ORDINAL);
+		checkRange(secondOrdinal, MAX_DEVELOPER_ORDINAL);
+		checkRange(trackOrdinal, MAX_TRACK_ORDINAL);
+		if (firstOrdinal >= 0 && firstOrdinal == secondOrdinal) {
+			throw new IllegalArgumentException("Developer can't pair with itself: " + firstOrdinal);
+		}
+		int low = firstOrdinal;
+		int high = secondOrdinal;
+		if (low < 0 || (high >= 0 && high < low)) {
+			low = secondOrdinal;
+			high = firstOrdinal;
+		}
+		return (low + 1L) | (high + 1L) << DEVELOPER_BITS | (trackOrdinal + 1L) << TRACK_SHIFT | (flags & 0xFFL) << FLAGS_SHIFT;
+	}
+
+	public static int flagsOf(Pair pair) {
+		return (pair.isBuildPair() ? BUILD : 0) | (pair.isCommunityPair() ? COMMUNITY : 0) | (pair.isOpsPair() ? OPS : 0)
+				| (pair.isLockedPair() ? LOCKED : 0);
+	}
+
+	/**
+	 * @return the smaller developer ordinal, or the only one of a solo pair, -1 for an empty pair
+	 */
+	public static int firstOf(long packedPair) {
+		return (int) (packedPair & DEVELOPER_MASK) - 1;
+	}
+
+	/**
+	 * @return the larger developer ordinal, -1 for a solo or empty pair
+	 */
+	public static int secondOf(long packedPair) {
+		return (int) (packedPair >>> DEVELOPER_BITS & DEVELOPER_MASK) - 1;
+	}
+
+	public static int trackOf(long packedPair) {
+		return (int) (packedPair >>> TRACK_SHIFT & TRACK_MASK) - 1;
+	}
+
+	public static int flagsOf(long packedPair) {
+		return (int) (packedPair >>> FLAGS_SHIFT);
+	}
+
+	public static boolean hasFlag(long packedPair, int flag) {
+		return (flagsOf(packedPair) & flag) != 0;
+	}
+
+	public static boolean isComplete(long packedPair) {
+		return secondOf(packedPair) >= 0;
+	}
+
+	public static long devsOf(long packedPair) {
+		return packedPair & DEVS_MASK;
+	}
+
+	private static void checkRange(int ordinal, int max) {
+		if (ordinal < -1 || ordinal > max) {
+			throw new IllegalArgumentException("Ordinal out of range: " + ordinal);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package pair.distribution.app.helpers;
+
+/**
+ * Lazy, allocation free enumeration of all pair combinations of developer ordinals. Pairs are visited
+ * in the packed order of {@link PairsWeightMatrix}: (0,1), (0,2), (1,2), (0,3), ... so that
+ * {@link #index()} grows by one on every step.
+ */
+public class PairOrdinals {
+
+	private int size;
+	private int first;
+	private int second;
+	private int index;
+
+	public PairOrdinals(int size) {
+		this.size = size;
+		reset();
+	}
+
+	public boolean next() {
+		index++;
+		first++;
+		if (first >= second) {
+			first = 0;
+			second++;
+		}
+		return second < size;
+	}
+
+	public int first() {
+		return first;
+	}
+
+	public int second() {
+		return second;
+	}
+
+	public int index() {
+		return index;
+	}
+
+	public void reset() {
+		first = 0;
+		second = 0;
+		index = -1;
+	}
+
+	public static int count(int size) {
+		return size * (size - 1) / 2;
+	}
+
+	public static int index(int firstOrdinal, int secondOrdinal) {
+		if (firstOrdinal == secondOrdinal) {
+			throw new IllegalArgumentException("Developer can't pair with itself: " + firstOrdinal);
+		}
+		int low = Math.min(firstOrdinal, secondOrdinal);
+		int high = Math.max(firstOrdinal, secondOrdinal);
+		return high * (high - 1) / 2 + low;
+	}
+
+	public static int secondOf(int index) {
+		int second = (int) ((1 + Math.sqrt(1 + 8.0 * index)) / 2);
+		// correct floating point rounding at the column borders
+		while (count(second) > index) {
+			second--;
+		}
+		while (count(second + 1) <= index) {
+			second++;
+		}
+		return second;
+	}
+
+	public static int firstOf(int index) {
+		return index - count(secondOf(index));
+	}
+}
@@ -0,0 +1,251 @@
+package pair.distribution.app.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import pair.distribution.app.persistence.mongodb.AggregationPairsWeightSource;
+import pair.distribution.app.persistence.mongodb.PairStatsWeightSource;
+import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
+
+/**
+ * The pairing boards served by this instance. Every board has its own pairs weight index and its own bounded
+ * executor, so a slow board only queues its own requests. Tasks fanned out by a board request run on a separate
+ * pool shared by all boards, so they never take a queue slot of a board.
+ */
+@Component
+public class PairingBoardRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(PairingBoardRegistry.class);
+
+	/**
+	 * Where pair weights are read from: INDEX keeps them in memory and updates them day by day, AGGREGATION
+	 * counts them in Mongo for every request, PAIR_STATS keeps counters in Mongo and updates them day by day.
+	 */
+	public enum WeightSource {
+		INDEX, AGGREGATION, PAIR_STATS;
+
+		public static WeightSource fromName(String name) {
+			return valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+		}
+	}
+
+	private TrelloPairsRepository repository;
+	private MongoTemplate mongoTemplate;
+	private String defaultBoardId;
+	private Map<String, PairsWeightIndex> pairsWeightIndexes;
+	private Map<String, PairsWeightSource> pairsWeightSources;
+	private Map<String, PairsWeightUpdates> pairsWeightUpdates;
+	private List<PairStatsWeightSource> pairStatsSources;
+	private Map<String, ThreadPoolExecutor> executors;
+	private ThreadPoolExecutor fanOutExecutor;
+
+	public PairingBoardRegistry(TrelloPairsRepository repository, String defaultBoardId, String[] boardIds, double halfLifeDays, int windowDays,
+			int threads, int queueSize) {
+		this(repository, null, defaultBoardId, boardIds, halfLifeDays, windowDays, threads, queueSize, 0, WeightSource.INDEX.name());
+	}
+
+	/**
+	 * @param fanOutThreads threads shared by the fanned out tasks of all boards, 0 for the number of processors
+	 */
+	@Autowired
+	public PairingBoardRegistry(TrelloPairsRepository repository, MongoTemplate mongoTemplate, @Value("${trello.pairing.board.id}") String defaultBoardId,
+			@Value("${trello.pairing.board.ids:}") String[] boardIds, @Value("${pairing.weight.half.life.days:0}") double halfLifeDays,
+			@Value("${pairing.weight.window.days:0}") int windowDays, @Value("${pairing.board.threads:1}") int threads,
+			@Value("${pairing.board.queue.size:10}") int queueSize, @Value("${pairing.fan.out.threads:0}") int fanOutThreads,
+			@Value("${pairing.weight.source:index}") String weightSource) {
+		WeightSource source = WeightSource.fromName(weightSource);
+		if (source != WeightSource.INDEX && halfLifeDays > 0) {
+			throw new IllegalArgumentException("Weight half life is only supported by the index weight source");
+		}
+		if (source == WeightSource.PAIR_STATS && windowDays > 0) {
+			throw new IllegalArgumentException("Weight window is not supported by the pair stats weight source");
+		}
+		this.repository = repository;
+		this.mongoTemplate = mongoTemplate;
+		this.defaultBoardId = defaultBoardId;
+		this.pairsWeightIndexes = new LinkedHashMap<>();
+		this.pairsWeightSources = new LinkedHashMap<>();
+		this.pairsWeightUpdates = new LinkedHashMap<>();
+		this.pairStatsSources = new ArrayList<>();
+		this.executors = new LinkedHashMap<>();
+		// no queue, a task no thread takes at once is run by the calling thread
+		this.fanOutExecutor = new ThreadPoolExecutor(0, fanOutThreads > 0 ? fanOutThreads : Runtime.getRuntime().availableProcessors(), 60,
+				TimeUnit.SECONDS, new SynchronousQueue<>());
+		List<String> allBoardIds = Arrays.stream(boardIds).map(String::trim).filter(boardId -> !boardId.isEmpty()).collect(Collectors.toList());
+		allBoardIds.add(0, defaultBoardId);
+		for (String boardId : allBoardIds) {
+			if (!pairsWeightIndexes.containsKey(boardId)) {
+				PairsWeightIndex pairsWeightIndex = new PairsWeightIndex(repository, boardId, halfLifeDays, windowDays);
+				pairsWeightIndexes.put(boardId, pairsWeightIndex);
+				switch (source) {
+				case AGGREGATION:
+					pairsWeightSources.put(boardId, new AggregationPairsWeightSource(mongoTemplate, boardId, windowDays));
+					break;
+				case PAIR_STATS:
+					PairStatsWeightSource pairStatsSource = new PairStatsWeightSource(mongoTemplate, boardId);
+					pairStatsSources.add(pairStatsSource);
+					pairsWeightSources.put(boardId, pairStatsSource);
+					pairsWeightUpdates.put(boardId, pairStatsSource);
+					break;
+				default:
+					pairsWeightSources.put(boardId, pairsWeightIndex);
+					pairsWeightUpdates.put(boardId, pairsWeightIndex);
+				}
+				executors.put(boardId, new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize)));
+			}
+		}
+	}
+
+	@PostConstruct
+	public void prepareRepository() {
+		migrateDaysWithoutBoard();
+		try {
+			repository.ensureDateIndex();
+		} catch (DataAccessException e) {
+			// queries still work without the index, only slower
+			logger.error("Unique index on board and date could not be created, check for duplicate days", e);
+		}
+		if (pairStatsSources.isEmpty() && mongoTemplate != null) {
+			// counters are not kept up to date by the other weight sources
+			PairStatsWeightSource.forgetCounted(mongoTemplate);
+		}
+		for (PairStatsWeightSource pairStatsSource : pairStatsSources) {
+			pairStatsSource.ensureIndex();
+			pairStatsSource.ensureCounted();
+		}
+	}
+
+	/**
+	 * Days stored before boards were separated belong to the default board.
+	 */
+	public void migrateDaysWithoutBoard() {
+		long assigned = repository.assignBoardToDaysWithoutBoard(defaultBoardId);
+		if (assigned > 0) {
+			logger.info("Assigned {} days without board to board {}", assigned, defaultBoardId);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executors.values().stream().forEach(ExecutorService::shutdown);
+		fanOutExecutor.shutdown();
+	}
+
+	public String getDefaultBoardId() {
+		return defaultBoardId;
+	}
+
+	public List<String> getBoardIds() {
+		return new ArrayList<>(pairsWeightIndexes.keySet());
+	}
+
+	/**
+	 * @param boardId a registered board id or null for the default board
+	 */
+	public String resolveBoardId(String boardId) {
+		String result = boardId == null || boardId.isEmpty() ? defaultBoardId : boardId;
+		if (!pairsWeightIndexes.containsKey(result)) {
+			throw new IllegalArgumentException("Unknown pairing board: " + result);
+		}
+		return result;
+	}
+
+	public PairsWeightIndex getPairsWeightIndex(String boardId) {
+		return pairsWeightIndexes.get(resolveBoardId(boardId));
+	}
+
+	/**
+	 * @return the configured weight source of the board, its pairs weight index unless AGGREGATION is configured
+	 */
+	public PairsWeightSource getPairsWeightSource(String boardId) {
+		return pairsWeightSources.get(resolveBoardId(boardId));
+	}
+
+	/**
+	 * @return the weights of the board the database sync has to keep up to date, null when the weight source
+	 *         reads the stored days directly
+	 */
+	public PairsWeightUpdates getPairsWeightUpdates(String boardId) {
+		return pairsWeightUpdates.get(resolveBoardId(boardId));
+	}
+
+	/**
+	 * Forgets the weights of the board after its stored days were deleted.
+	 */
+	public void resetPairsWeights(String boardId) {
+		getPairsWeightIndex(boardId).reset();
+		PairsWeightUpdates updates = getPairsWeightUpdates(boardId);
+		if (updates != null) {
+			updates.reset();
+		}
+	}
+
+	/**
+	 * Runs the task on the executor of the board and waits for its result. Throws a
+	 * {@link java.util.concurrent.RejectedExecutionException} when the queue of the board is full.
+	 */
+	public <T> T execute(String boardId, Callable<T> task) {
+		return getResult(boardId, executors.get(resolveBoardId(boardId)).submit(task));
+	}
+
+	/**
+	 * Runs the tasks on the fan out pool and returns their results in task order. The calling thread runs the
+	 * first task and every task no free thread of the pool took, so a task of the board can fan out without
+	 * waiting for a thread or taking a queue slot of the board.
+	 */
+	public <T> List<T> executeAll(String boardId, List<Callable<T>> tasks) {
+		resolveBoardId(boardId);
+		List<FutureTask<T>> futures = tasks.stream().map(FutureTask::new).collect(Collectors.toList());
+		for (int i = 1; i < futures.size(); i++) {
+			try {
+				fanOutExecutor.execute(futures.get(i));
+			} catch (RejectedExecutionException e) {
+				// all threads busy, run below by the calling thread
+				break;
+			}
+		}
+		// a task already started by a pool thread is not run again
+		futures.stream().forEach(FutureTask::run);
+		return futures.stream().map(future -> getResult(boardId, future)).collect(Collectors.toList());
+	}
+
+	private <T> T getResult(String boardId, Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for board " + boardId, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package pair.distribution.app.helpers;
+
+import java.util.Date;
+import java.util.List;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Pairing history kept up to date day by day, from which the pair generation reads pair weights, pairing
+ * days and track weights.
+ */
+public interface PairingHistory {
+
+	void addDay(Date date, List<Pair> pairs);
+
+	void removeDay(Date date, List<Pair> pairs);
+
+	PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, PairWeightType type);
+
+	void applyTo(List<Developer> developers);
+
+	/**
+	 * @return an independent history with the same days
+	 */
+	PairingHistory copy();
+}
@@ -0,0 +1,130 @@
+package pair.distribution.app.helpers;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+import pair.distribution.app.trello.entities.PairCombinations;
+
+/**
+ * Everything the pair generation needs from the history, collected in one walk: pair weights per
+ * weight type, pairing days per developer and track weights per developer.
+ */
+public class PairingHistoryStats implements PairingHistory {
+
+	private Map<PairWeightType, PairsWeightMatrix> pairsWeight;
+	private Map<String, Integer> pairingDays;
+	private Map<String, Map<String, Integer>> tracksWeight;
+
+	public PairingHistoryStats() {
+		pairsWeight = new EnumMap<>(PairWeightType.class);
+		for (PairWeightType type : PairWeightType.values()) {
+			pairsWeight.put(type, new PairsWeightMatrix());
+		}
+		pairingDays = new HashMap<>();
+		tracksWeight = new HashMap<>();
+	}
+
+	public static PairingHistoryStats aggregate(PairCombinations pairCombinations) {
+		PairingHistoryStats result = new PairingHistoryStats();
+		pairCombinations.getPairs().stream().forEach(pair -> result.addPair(pair, 1));
+		return result;
+	}
+
+	@Override
+	public void addDay(Date date, List<Pair> pairs) {
+		pairs.stream().forEach(pair -> addPair(pair, 1));
+	}
+
+	@Override
+	public void removeDay(Date date, List<Pair> pairs) {
+		pairs.stream().forEach(pair -> addPair(pair, -1));
+	}
+
+	public void addPair(Pair pair, int delta) {
+		for (Developer developer : pair.getDevs()) {
+			addTrackCount(developer.getId(), pair.getTrack(), delta);
+		}
+		if (pair.isComplete()) {
+			for (PairWeightType type : PairWeightType.values()) {
+				if (type.test(pair)) {
+					PairsWeightMatrix matrix = pairsWeight.get(type);
+					matrix.addWeight(getOrAddOrdinal(matrix, pair.getFirstDev()), getOrAddOrdinal(matrix, pair.getSecondDev()), delta);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds count complete pairs of the two developers, counted for the weight types their {@link PackedPairs}
+	 * flags match.
+	 */
+	public void addPairCount(String firstId, String secondId, int flags, int count) {
+		long packedPair = PackedPairs.pack(0, 1, -1, flags);
+		for (PairWeightType type : PairWeightType.values()) {
+			if (type.test(packedPair)) {
+				addPairWeight(firstId, secondId, type, count);
+			}
+		}
+	}
+
+	public void addPairWeight(String firstId, String secondId, PairWeightType type, int weight) {
+		PairsWeightMatrix matrix = pairsWeight.get(type);
+		matrix.addWeight(getOrAddOrdinal(matrix, new Developer(firstId)), getOrAddOrdinal(matrix, new Developer(secondId)), weight);
+	}
+
+	/**
+	 * Adds count pairing days of the developer on the track.
+	 */
+	public void addTrackCount(String developerId, String track, int count) {
+		pairingDays.merge(developerId, Integer.valueOf(count), Integer::sum);
+		tracksWeight.computeIfAbsent(developerId, id -> new HashMap<>()).merge(track, Integer.valueOf(count), Integer::sum);
+	}
+
+	@Override
+	public PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, PairWeightType type) {
+		return pairsWeight.get(type).subMatrix(availableDevs);
+	}
+
+	public int getPairingDays(Developer developer) {
+		return pairingDays.getOrDefault(developer.getId(), Integer.valueOf(0)).intValue();
+	}
+
+	public int getTrackWeight(Developer developer, String track) {
+		Map<String, Integer> developerTracksWeight = tracksWeight.get(developer.getId());
+		return developerTracksWeight == null ? 0 : developerTracksWeight.getOrDefault(track, Integer.valueOf(0)).intValue();
+	}
+
+	public Map<String, Integer> getTracksWeight(Developer developer) {
+		return tracksWeight.getOrDefault(developer.getId(), Collections.emptyMap());
+	}
+
+	@Override
+	public void applyTo(List<Developer> developers) {
+		for (Developer developer : developers) {
+			developer.setPairingDays(getPairingDays(developer));
+			getTracksWeight(developer).forEach((track, weight) -> developer.setTrackWeight(track, weight.intValue()));
+		}
+	}
+
+	@Override
+	public PairingHistoryStats copy() {
+		PairingHistoryStats result = new PairingHistoryStats();
+		pairsWeight.forEach((type, matrix) -> result.pairsWeight.put(type, matrix.subMatrix(matrix.getDevelopers())));
+		result.pairingDays.putAll(pairingDays);
+		tracksWeight.forEach((developerId, developerTracksWeight) -> result.tracksWeight.put(developerId, new HashMap<>(developerTracksWeight)));
+		return result;
+	}
+
+	private int getOrAddOrdinal(PairsWeightMatrix matrix, Developer developer) {
+		int ordinal = matrix.getOrdinal(developer);
+		// keep only the id, history developers carry request scoped state
+		return ordinal >= 0 ? ordinal : matrix.addDeveloper(new Developer(developer.getId()));
+	}
+}
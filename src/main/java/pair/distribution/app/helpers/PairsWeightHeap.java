@@ -0,0 +1,132 @@
+package pair.distribution.app.helpers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Indexed binary min-heap over the pairs of available developers. Pairs are ordered by weight and then by
+ * their packed index, so ties are broken like a scan in {@link PairOrdinals} order. Assigning a developer
+ * drops all of its pairs, each in logarithmic time.
+ */
+public class PairsWeightHeap {
+
+	private PairsWeightMatrix pairsWeight;
+	private int[] heap;
+	private int[] positions;
+	private int size;
+
+	public PairsWeightHeap(PairsWeightMatrix pairsWeight, List<Developer> availableDevs) {
+		this.pairsWeight = pairsWeight;
+		boolean[] available = new boolean[pairsWeight.size()];
+		availableDevs.stream().mapToInt(pairsWeight::getOrdinal).filter(ordinal -> ordinal >= 0).forEach(ordinal -> available[ordinal] = true);
+		int pairsCount = PairOrdinals.count(pairsWeight.size());
+		heap = new int[pairsCount];
+		positions = new int[pairsCount];
+		Arrays.fill(positions, -1);
+		PairOrdinals pairOrdinals = pairsWeight.pairOrdinals();
+		while (pairOrdinals.next()) {
+			if (available[pairOrdinals.first()] && available[pairOrdinals.second()]) {
+				heap[size] = pairOrdinals.index();
+				positions[pairOrdinals.index()] = size;
+				size++;
+			}
+		}
+		for (int position = size / 2 - 1; position >= 0; position--) {
+			siftDown(position);
+		}
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Pair peek() {
+		if (isEmpty()) {
+			return null;
+		}
+		int index = heap[0];
+		return new Pair(Arrays.asList(pairsWeight.getDeveloper(PairOrdinals.firstOf(index)), pairsWeight.getDeveloper(PairOrdinals.secondOf(index))));
+	}
+
+	public void removeDevelopers(Pair pair) {
+		pair.getDevs().stream().forEach(this::removeDeveloper);
+	}
+
+	public void removeDeveloper(Developer developer) {
+		int ordinal = pairsWeight.getOrdinal(developer);
+		if (ordinal < 0) {
+			return;
+		}
+		for (int other = 0; other < pairsWeight.size(); other++) {
+			if (other != ordinal) {
+				remove(PairOrdinals.index(ordinal, other));
+			}
+		}
+	}
+
+	private void remove(int index) {
+		int position = positions[index];
+		if (position < 0) {
+			return;
+		}
+		positions[index] = -1;
+		size--;
+		if (position < size) {
+			heap[position] = heap[size];
+			positions[heap[position]] = position;
+			siftDown(position);
+			siftUp(position);
+		}
+	}
+
+	private void siftUp(int position) {
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (!less(heap[position], heap[parent])) {
+				return;
+			}
+			swap(position, parent);
+			position = parent;
+		}
+	}
+
+	private void siftDown(int position) {
+		while (true) {
+			int smallest = position;
+			int left = 2 * position + 1;
+			int right = left + 1;
+			if (left < size && less(heap[left], heap[smallest])) {
+				smallest = left;
+			}
+			if (right < size && less(heap[right], heap[smallest])) {
+				smallest = right;
+			}
+			if (smallest == position) {
+				return;
+			}
+			swap(position, smallest);
+			position = smallest;
+		}
+	}
+
+	private boolean less(int index, int otherIndex) {
+		int weight = pairsWeight.getWeightAt(index);
+		int otherWeight = pairsWeight.getWeightAt(otherIndex);
+		return weight < otherWeight || (weight == otherWeight && index < otherIndex);
+	}
+
+	private void swap(int position, int otherPosition) {
+		int index = heap[position];
+		heap[position] = heap[otherPosition];
+		heap[otherPosition] = index;
+		positions[heap[position]] = position;
+		positions[heap[otherPosition]] = otherPosition;
+	}
+}
@@ -0,0 +1,163 @@
+package pair.distribution.app.helpers;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Pair weights and developer history of one pairing board, kept in memory and updated day by day. Without a
+ * board id the whole repository is one board.
+ */
+public class PairsWeightIndex implements PairsWeightSource, PairsWeightUpdates {
+
+	private static final Logger logger = LoggerFactory.getLogger(PairsWeightIndex.class);
+
+	public enum PairWeightType {
+		COMPLETE(Pair::isComplete, PackedPairs::isComplete),
+		BUILD(Pair::isBuildPair, packedPair -> PackedPairs.hasFlag(packedPair, PackedPairs.BUILD)),
+		COMMUNITY(Pair::isCommunityPair, packedPair -> PackedPairs.hasFlag(packedPair, PackedPairs.COMMUNITY));
+
+		private final Predicate<Pair> filter;
+		private final LongPredicate packedFilter;
+
+		PairWeightType(Predicate<Pair> filter, LongPredicate packedFilter) {
+			this.filter = filter;
+			this.packedFilter = packedFilter;
+		}
+
+		public boolean test(Pair pair) {
+			return filter.test(pair);
+		}
+
+		public boolean test(long packedPair) {
+			return packedFilter.test(packedPair);
+		}
+	}
+
+	private TrelloPairsRepository repository;
+	private String boardId;
+	private double halfLifeDays;
+	private int windowDays;
+	private PairingHistory devHistory;
+	private PairingHistory opsHistory;
+	private boolean loaded;
+
+	public PairsWeightIndex(TrelloPairsRepository repository) {
+		this(repository, 0, 0);
+	}
+
+	public PairsWeightIndex(TrelloPairsRepository repository, double halfLifeDays, int windowDays) {
+		this(repository, null, halfLifeDays, windowDays);
+	}
+
+	public PairsWeightIndex(TrelloPairsRepository repository, String boardId, double halfLifeDays, int windowDays) {
+		this.repository = repository;
+		this.boardId = boardId;
+		this.halfLifeDays = halfLifeDays;
+		this.windowDays = windowDays;
+		this.devHistory = createHistory();
+		this.opsHistory = createHistory();
+	}
+
+	@Override
+	public synchronized void addDay(DayPairs dayPairs) {
+		ensureLoaded();
+		updateHistory(dayPairs, 1);
+	}
+
+	@Override
+	public synchronized void removeDay(DayPairs dayPairs) {
+		ensureLoaded();
+		updateHistory(dayPairs, -1);
+	}
+
+	@Override
+	public synchronized void replaceDay(DayPairs oldDayPairs, DayPairs newDayPairs) {
+		ensureLoaded();
+		updateHistory(oldDayPairs, -1);
+		updateHistory(newDayPairs, 1);
+	}
+
+	@Override
+	public synchronized void reset() {
+		devHistory = createHistory();
+		opsHistory = createHistory();
+		loaded = false;
+	}
+
+	/**
+	 * @return an index over the given dev and ops history, which never reads or writes the repository
+	 */
+	public static PairsWeightIndex inMemory(PairingHistory devHistory, PairingHistory opsHistory) {
+		PairsWeightIndex result = new PairsWeightIndex(null);
+		result.devHistory = devHistory;
+		result.opsHistory = opsHistory;
+		result.loaded = true;
+		return result;
+	}
+
+	@Override
+	public synchronized PairsWeightIndex inMemoryCopy() {
+		ensureLoaded();
+		return inMemory(devHistory.copy(), opsHistory.copy());
+	}
+
+	@Override
+	public synchronized PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, boolean opsPairs, PairWeightType type) {
+		ensureLoaded();
+		return (opsPairs ? opsHistory : devHistory).getPairsWeight(availableDevs, type);
+	}
+
+	@Override
+	public synchronized void applyDevelopersHistory(List<Developer> developers, boolean opsPairs) {
+		ensureLoaded();
+		(opsPairs ? opsHistory : devHistory).applyTo(developers);
+	}
+
+	private void ensureLoaded() {
+		if (!loaded) {
+			logger.info("Loading pairs weight index from repository");
+			getHistoryDays().stream().sorted().forEach(dayPairs -> updateHistory(dayPairs, 1));
+			loaded = true;
+		}
+	}
+
+	/**
+	 * @return the stored days this index is built from, all days or the days of the weight window
+	 */
+	public List<DayPairs> getHistoryDays() {
+		if (windowDays <= 0) {
+			return boardId == null ? repository.findAll() : repository.findByBoardId(boardId);
+		}
+		Date windowStart = Date.from(LocalDate.now().minusDays(windowDays).atStartOfDay(ZoneId.systemDefault()).toInstant());
+		return boardId == null ? repository.findByDateGreaterThanEqual(windowStart) : repository.findByBoardIdAndDateGreaterThanEqual(boardId, windowStart);
+	}
+
+	private PairingHistory createHistory() {
+		return halfLifeDays > 0 || windowDays > 0 ? new DecayedPairingHistory(halfLifeDays, windowDays) : new PairingHistoryStats();
+	}
+
+	private void updateHistory(DayPairs dayPairs, int delta) {
+		Map<Boolean, List<Pair>> pairsByOps = dayPairs.getPairs().values().stream().collect(Collectors.partitioningBy(Pair::isOpsPair));
+		if (delta > 0) {
+			devHistory.addDay(dayPairs.getDate(), pairsByOps.get(Boolean.FALSE));
+			opsHistory.addDay(dayPairs.getDate(), pairsByOps.get(Boolean.TRUE));
+		} else {
+			devHistory.removeDay(dayPairs.getDate(), pairsByOps.get(Boolean.FALSE));
+			opsHistory.removeDay(dayPairs.getDate(), pairsByOps.get(Boolean.TRUE));
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package pair.distribution.app.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Pair weights keyed by developer ordinals. The upper triangle is packed column by column into one
+ * int array, so the weight of developers i < j is stored at j * (j - 1) / 2 + i and adding a developer
+ * only appends a column. The scale is the weight of one full pairing, weights with fractions of a pairing are
+ * stored in units of 1 / scale.
+ */
+public class PairsWeightMatrix {
+
+	private List<Developer> developers;
+	private Map<Developer, Integer> ordinals;
+	private int[] weights;
+	private int scale;
+
+	public PairsWeightMatrix() {
+		this(new ArrayList<>());
+	}
+
+	public PairsWeightMatrix(List<Developer> developers) {
+		this(developers, 1);
+	}
+
+	public PairsWeightMatrix(List<Developer> developers, int scale) {
+		this.scale = scale;
+		this.developers = new ArrayList<>(developers.size());
+		this.ordinals = new HashMap<>();
+		this.weights = new int[PairOrdinals.count(developers.size())];
+		developers.stream().forEach(this::addDeveloper);
+	}
+
+	public static PairsWeightMatrix fromMap(List<Developer> developers, Map<Pair, Integer> pairsWeight) {
+		PairsWeightMatrix result = new PairsWeightMatrix(developers);
+		pairsWeight.forEach((pair, weight) -> {
+			if (result.hasPair(pair)) {
+				result.setWeight(result.getOrdinal(pair.getFirstDev()), result.getOrdinal(pair.getSecondDev()), weight.intValue());
+			}
+		});
+		return result;
+	}
+
+	public int addDeveloper(Developer developer) {
+		Integer ordinal = ordinals.get(developer);
+		if (ordinal != null) {
+			return ordinal.intValue();
+		}
+		int newOrdinal = developers.size();
+		developers.add(developer);
+		ordinals.put(developer, Integer.valueOf(newOrdinal));
+		int requiredSize = PairOrdinals.count(developers.size());
+		if (weights.length < requiredSize) {
+			weights = Arrays.copyOf(weights, Math.max(requiredSize, weights.length * 2));
+		}
+		return newOrdinal;
+	}
+
+	public int size() {
+		return developers.size();
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	public Developer getDeveloper(int ordinal) {
+		return developers.get(ordinal);
+	}
+
+	public List<Developer> getDevelopers() {
+		return developers;
+	}
+
+	public int getOrdinal(Developer developer) {
+		Integer ordinal = developer == null ? null : ordinals.get(developer);
+		return ordinal == null ? -1 : ordinal.intValue();
+	}
+
+	public int getWeight(int firstOrdinal, int secondOrdinal) {
+		return weights[PairOrdinals.index(firstOrdinal, secondOrdinal)];
+	}
+
+	public void setWeight(int firstOrdinal, int secondOrdinal, int weight) {
+		weights[PairOrdinals.index(firstOrdinal, secondOrdinal)] = weight;
+	}
+
+	public void addWeight(int firstOrdinal, int secondOrdinal, int delta) {
+		weights[PairOrdinals.index(firstOrdinal, secondOrdinal)] += delta;
+	}
+
+	public int getWeight(PairOrdinals pairOrdinals) {
+		return weights[pairOrdinals.index()];
+	}
+
+	public int getWeightAt(int index) {
+		return weights[index];
+	}
+
+	public void addWeight(PairOrdinals pairOrdinals, int delta) {
+		weights[pairOrdinals.index()] += delta;
+	}
+
+	public PairOrdinals pairOrdinals() {
+		return new PairOrdinals(size());
+	}
+
+	public boolean hasPair(Pair pair) {
+		return pair.isComplete() && getOrdinal(pair.getFirstDev()) >= 0 && getOrdinal(pair.getSecondDev()) >= 0;
+	}
+
+	public int getWeight(Pair pair) {
+		return getWeight(getOrdinal(pair.getFirstDev()), getOrdinal(pair.getSecondDev()));
+	}
+
+	public PairsWeightMatrix subMatrix(List<Developer> subDevelopers) {
+		PairsWeightMatrix result = new PairsWeightMatrix(subDevelopers, scale);
+		int[] sourceOrdinals = new int[result.size()];
+		for (int i = 0; i < sourceOrdinals.length; i++) {
+			sourceOrdinals[i] = getOrdinal(result.getDeveloper(i));
+		}
+		PairOrdinals pairOrdinals = result.pairOrdinals();
+		while (pairOrdinals.next()) {
+			int first = sourceOrdinals[pairOrdinals.first()];
+			int second = sourceOrdinals[pairOrdinals.second()];
+			if (first >= 0 && second >= 0) {
+				result.weights[pairOrdinals.index()] = getWeight(first, second);
+			}
+		}
+		return result;
+	}
+
+	public Map<Pair, Integer> toMap() {
+		Map<Pair, Integer> result = new HashMap<>();
+		PairOrdinals pairOrdinals = pairOrdinals();
+		while (pairOrdinals.next()) {
+			result.put(new Pair(Arrays.asList(developers.get(pairOrdinals.first()), developers.get(pairOrdinals.second()))), Integer.valueOf(getWeight(pairOrdinals)));
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		PairOrdinals pairOrdinals = pairOrdinals();
+		while (pairOrdinals.next()) {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(developers.get(pairOrdinals.first())).append('-').append(developers.get(pairOrdinals.second())).append('=').append(getWeight(pairOrdinals));
+		}
+		return builder.append('}').toString();
+	}
+}
@@ -0,0 +1,25 @@
+package pair.distribution.app.helpers;
+
+import java.util.List;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.Developer;
+
+/**
+ * Where the pair generation reads the pair weights and developer history of a board from.
+ */
+public interface PairsWeightSource {
+
+	PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, boolean opsPairs, PairWeightType type);
+
+	/**
+	 * Sets pairing days and track weights of the developers.
+	 */
+	void applyDevelopersHistory(List<Developer> developers, boolean opsPairs);
+
+	/**
+	 * @return an index with the current weights of this source, which never reads or writes the database, for
+	 *         days which are only simulated
+	 */
+	PairsWeightIndex inMemoryCopy();
+}
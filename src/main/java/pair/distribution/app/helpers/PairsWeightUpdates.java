@@ -0,0 +1,20 @@
+package pair.distribution.app.helpers;
+
+import pair.distribution.app.trello.entities.DayPairs;
+
+/**
+ * Weights kept up to date with the stored days, told by the database sync about every stored or removed day.
+ */
+public interface PairsWeightUpdates {
+
+	void addDay(DayPairs dayPairs);
+
+	void removeDay(DayPairs dayPairs);
+
+	void replaceDay(DayPairs oldDayPairs, DayPairs newDayPairs);
+
+	/**
+	 * Forgets all days, for when the stored days of the board are deleted.
+	 */
+	void reset();
+}
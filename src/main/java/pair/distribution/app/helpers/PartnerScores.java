@@ -0,0 +1,83 @@
+package pair.distribution.app.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import pair.distribution.app.trello.entities.Developer;
+
+/**
+ * Partner rows of a {@link PairsWeightMatrix} with the weights already divided by the pairing days of the
+ * partner. Track weights relative to pairing days are computed once per track, so choosing the best
+ * partner of a developer is a scan over one float row.
+ */
+public class PartnerScores {
+
+	private PairsWeightMatrix pairsWeight;
+	private float[][] partnerScores;
+	private Map<String, float[]> trackScores;
+
+	public PartnerScores(PairsWeightMatrix pairsWeight) {
+		this.pairsWeight = pairsWeight;
+		this.trackScores = new HashMap<>();
+		int size = pairsWeight.size();
+		int[] pairingDays = new int[size];
+		for (int i = 0; i < size; i++) {
+			pairingDays[i] = pairsWeight.getDeveloper(i).getPairingDays();
+		}
+		partnerScores = new float[size][size];
+		PairOrdinals pairOrdinals = pairsWeight.pairOrdinals();
+		while (pairOrdinals.next()) {
+			int weight = pairsWeight.getWeight(pairOrdinals);
+			partnerScores[pairOrdinals.first()][pairOrdinals.second()] = getRelativeWeight(weight, pairingDays[pairOrdinals.second()]);
+			partnerScores[pairOrdinals.second()][pairOrdinals.first()] = getRelativeWeight(weight, pairingDays[pairOrdinals.first()]);
+		}
+	}
+
+	public PairsWeightMatrix getPairsWeight() {
+		return pairsWeight;
+	}
+
+	public float getScore(int ordinal, int partnerOrdinal, String track) {
+		return partnerScores[ordinal][partnerOrdinal] + getTrackScores(track)[partnerOrdinal];
+	}
+
+	/**
+	 * @return the mean of the scores of both developers without track, for a pair whose track is not known yet
+	 */
+	public float getPairScore(int firstOrdinal, int secondOrdinal) {
+		return (partnerScores[firstOrdinal][secondOrdinal] + partnerScores[secondOrdinal][firstOrdinal]) / 2;
+	}
+
+	public int getBestPartner(int ordinal, boolean[] available, String track) {
+		float[] partnerRow = partnerScores[ordinal];
+		float[] trackRow = getTrackScores(track);
+		int result = -1;
+		float resultScore = 0;
+		for (int i = 0; i < partnerRow.length; i++) {
+			if (available[i] && i != ordinal) {
+				float score = partnerRow[i] + trackRow[i];
+				if (result < 0 || score < resultScore) {
+					result = i;
+					resultScore = score;
+				}
+			}
+		}
+		return result;
+	}
+
+	private float[] getTrackScores(String track) {
+		return trackScores.computeIfAbsent(track, key -> {
+			float[] result = new float[pairsWeight.size()];
+			for (int i = 0; i < result.length; i++) {
+				Developer developer = pairsWeight.getDeveloper(i);
+				int trackWeight = developer.getTrackWeight(key);
+				result[i] = trackWeight > 0 ? (float) trackWeight / developer.getPairingDays() : 0;
+			}
+			return result;
+		});
+	}
+
+	private static float getRelativeWeight(int weight, int pairingDays) {
+		return pairingDays > 0 ? (float) weight / pairingDays : 0;
+	}
+}
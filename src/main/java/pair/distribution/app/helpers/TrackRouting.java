@@ -0,0 +1,68 @@
+package pair.distribution.app.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.Developer;
+
+/**
+ * Company of every track and developers of every company, resolved once per generation. A track belongs
+ * to the first company whose name matches the track prefix before the first '-', like
+ * {@link Company#isCompanyTrack(String)}. The developer buckets keep the order of the given developers
+ * and shrink as developers get assigned.
+ */
+public class TrackRouting {
+
+	private Map<String, Company> companiesByTrack;
+	private Map<String, List<Developer>> developersByCompany;
+
+	public TrackRouting(List<String> tracks, List<Developer> devs, List<Company> companies) {
+		Map<String, Company> companiesByName = new HashMap<>();
+		companies.stream().forEach(company -> companiesByName.putIfAbsent(company.getName(), company));
+		this.companiesByTrack = new HashMap<>();
+		for (String track : tracks) {
+			Company company = companiesByName.get(getTrackPrefix(track));
+			if (company != null) {
+				companiesByTrack.put(track, company);
+			}
+		}
+		this.developersByCompany = new HashMap<>();
+		if (!companiesByTrack.isEmpty()) {
+			devs.stream().forEach(developer -> developersByCompany.computeIfAbsent(developer.getCompany().getName(), name -> new ArrayList<>()).add(developer));
+		}
+	}
+
+	public Company getCompany(String track) {
+		return companiesByTrack.get(track);
+	}
+
+	/**
+	 * @return a copy of the still available developers of the company
+	 */
+	public List<Developer> getDevelopers(Company company) {
+		return new ArrayList<>(developersByCompany.getOrDefault(company.getName(), Collections.emptyList()));
+	}
+
+	public int getDevelopersCount(Company company) {
+		return developersByCompany.getOrDefault(company.getName(), Collections.emptyList()).size();
+	}
+
+	public void removeDevelopers(Collection<Developer> developers) {
+		for (Developer developer : developers) {
+			List<Developer> companyDevelopers = developersByCompany.get(developer.getCompany().getName());
+			if (companyDevelopers != null) {
+				companyDevelopers.remove(developer);
+			}
+		}
+	}
+
+	private static String getTrackPrefix(String track) {
+		int separator = track.indexOf('-');
+		return (separator < 0 ? track : track.substring(0, separator)).toLowerCase();
+	}
+}
@@ -0,0 +1,120 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.helpers.PairsWeightSource;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+
+/**
+ * Counts pairs and developer days of a board with one aggregation per call, so only the counts leave Mongo
+ * instead of the whole history. Reads the lean pair schema as well as pairs with embedded developers. Weights
+ * are not decayed, a window limits them to the newest days like in
+ * {@link pair.distribution.app.helpers.PairsWeightIndex}.
+ */
+public class AggregationPairsWeightSource implements PairsWeightSource {
+
+	private MongoTemplate mongoTemplate;
+	private String boardId;
+	private int windowDays;
+
+	public AggregationPairsWeightSource(MongoTemplate mongoTemplate, String boardId, int windowDays) {
+		this.mongoTemplate = mongoTemplate;
+		this.boardId = boardId;
+		this.windowDays = windowDays;
+	}
+
+	@Override
+	public PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, boolean opsPairs, PairWeightType type) {
+		return aggregate(opsPairs).getPairsWeight(availableDevs, type);
+	}
+
+	@Override
+	public void applyDevelopersHistory(List<Developer> developers, boolean opsPairs) {
+		aggregate(opsPairs).applyTo(developers);
+	}
+
+	@Override
+	public PairsWeightIndex inMemoryCopy() {
+		return PairsWeightIndex.inMemory(aggregate(false), aggregate(true));
+	}
+
+	public PairingHistoryStats aggregate(boolean opsPairs) {
+		Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(DayPairs.class)).aggregate(getPipeline(opsPairs)).first();
+		return readStats(result);
+	}
+
+	List<Document> getPipeline(boolean opsPairs) {
+		Document match = new Document("boardId", boardId);
+		if (windowDays > 0) {
+			match.append("date", new Document("$gte", Date.from(LocalDate.now().minusDays(windowDays).atStartOfDay(ZoneId.systemDefault()).toInstant())));
+		}
+		// pairs with embedded developers keep the id in _id and the flags in separate booleans
+		Document devIds = new Document("$map", new Document("input", new Document("$ifNull", Arrays.asList("$pairs.v.devs", Collections.emptyList())))
+				.append("as", "dev").append("in", new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList(new Document("$type", "$$dev"), "object")),
+						"$$dev._id", "$$dev"))));
+		Document legacyFlags = new Document("$add", Arrays.asList(getFlag("$pairs.v.buildPair", 1), getFlag("$pairs.v.communityPair", 2),
+				getFlag("$pairs.v.opsPair", 4), getFlag("$pairs.v.isLockedPair", 8)));
+		Document pairCounts = new Document("$group", new Document("_id", new Document("devs", "$devs").append("flags", "$weightFlags")).append("count",
+				new Document("$sum", 1)));
+		Document developerCounts = new Document("$group", new Document("_id", new Document("developer", "$devs").append("track", "$track"))
+				.append("count", new Document("$sum", 1)));
+		return Arrays.asList(
+				new Document("$match", match),
+				new Document("$project", new Document("pairs", new Document("$objectToArray", "$pairs"))),
+				new Document("$unwind", "$pairs"),
+				new Document("$project", new Document("devs", devIds).append("track", "$pairs.v.track").append("flags",
+						new Document("$ifNull", Arrays.asList("$pairs.v.flags", legacyFlags)))),
+				// no bitwise operators in the aggregation framework, build and community are the two lowest bits, ops the third
+				new Document("$project", new Document("devs", 1).append("track", 1).append("weightFlags", new Document("$mod", Arrays.asList("$flags", 4)))
+						.append("ops", new Document("$eq", Arrays.asList(new Document("$mod", Arrays.asList(new Document("$floor",
+								new Document("$divide", Arrays.asList("$flags", 4))), 2)), 1)))),
+				new Document("$match", new Document("ops", opsPairs)),
+				new Document("$facet", new Document("pairs", Arrays.asList(new Document("$match", new Document("devs.1", new Document("$exists", true))),
+						pairCounts)).append("developers", Arrays.asList(new Document("$unwind", "$devs"), developerCounts))));
+	}
+
+	static PairingHistoryStats readStats(Document result) {
+		PairingHistoryStats stats = new PairingHistoryStats();
+		if (result == null) {
+			return stats;
+		}
+		for (Document pairCount : getList(result, "pairs")) {
+			Document key = (Document) pairCount.get("_id");
+			List<?> devs = (List<?>) key.get("devs");
+			stats.addPairCount((String) devs.get(0), (String) devs.get(1), ((Number) key.get("flags")).intValue(), getCount(pairCount));
+		}
+		for (Document developerCount : getList(result, "developers")) {
+			Document key = (Document) developerCount.get("_id");
+			stats.addTrackCount(key.getString("developer"), key.getString("track"), getCount(developerCount));
+		}
+		return stats;
+	}
+
+	private static Document getFlag(String field, int flag) {
+		return new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList(field, true)), flag, 0));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Document> getList(Document document, String key) {
+		Object value = document.get(key);
+		return value == null ? new ArrayList<>() : (List<Document>) value;
+	}
+
+	private static int getCount(Document document) {
+		return ((Number) document.get("count")).intValue();
+	}
+}
@@ -0,0 +1,103 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import pair.distribution.app.trello.entities.DayPairs;
+
+/**
+ * Rewrites stored days whose pairs still embed whole developers into the schema of {@link PairWriteConverter}.
+ * Runs once in the background after startup, reading goes on through {@link PairReadConverter} meanwhile.
+ */
+@Component
+public class LeanSchemaMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(LeanSchemaMigration.class);
+
+	private static final int BATCH_SIZE = 500;
+
+	private MongoTemplate mongoTemplate;
+	private boolean enabled;
+	private ExecutorService executor;
+
+	@Autowired
+	public LeanSchemaMigration(MongoTemplate mongoTemplate, @Value("${pairing.schema.migration.enabled:true}") boolean enabled) {
+		this.mongoTemplate = mongoTemplate;
+		this.enabled = enabled;
+		this.executor = Executors.newSingleThreadExecutor();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (enabled) {
+			executor.submit(this::migrate);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return number of rewritten days
+	 */
+	public int migrate() {
+		String collectionName = mongoTemplate.getCollectionName(DayPairs.class);
+		MongoConverter converter = mongoTemplate.getConverter();
+		int migrated = 0;
+		BulkOperations operations = null;
+		int batchSize = 0;
+		try (CloseableIterator<Document> documents = mongoTemplate.stream(new Query(), Document.class, collectionName)) {
+			while (documents.hasNext() && !Thread.currentThread().isInterrupted()) {
+				Document document = documents.next();
+				Object pairs = document.get("pairs");
+				if (!isLegacy(pairs)) {
+					continue;
+				}
+				Document leanDocument = new Document();
+				converter.write(converter.read(DayPairs.class, document), leanDocument);
+				if (operations == null) {
+					operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, collectionName);
+				}
+				// only while the pairs are unchanged, a sync may have replaced the day in the meantime
+				operations.updateOne(Query.query(Criteria.where("_id").is(document.get("_id")).and("pairs").is(pairs)),
+						Update.update("pairs", leanDocument.get("pairs")));
+				if (++batchSize == BATCH_SIZE) {
+					migrated += operations.execute().getModifiedCount();
+					operations = null;
+					batchSize = 0;
+				}
+			}
+		}
+		if (operations != null) {
+			migrated += operations.execute().getModifiedCount();
+		}
+		logger.info("Migrated {} days to the lean pair schema", migrated);
+		return migrated;
+	}
+
+	private boolean isLegacy(Object pairs) {
+		return pairs instanceof Document && ((Document) pairs).values().stream()
+				.anyMatch(pair -> pair instanceof Document && PairReadConverter.isLegacy((Document) pair));
+	}
+}
@@ -0,0 +1,16 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.Arrays;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+@Configuration
+public class MongoConfiguration {
+
+	@Bean
+	public MongoCustomConversions customConversions() {
+		return new MongoCustomConversions(Arrays.asList(new PairWriteConverter(), new PairReadConverter()));
+	}
+}
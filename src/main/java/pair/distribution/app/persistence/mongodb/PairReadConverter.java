@@ -0,0 +1,65 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import pair.distribution.app.helpers.PackedPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Reads pairs written by {@link PairWriteConverter} as well as pairs stored before, which embed whole
+ * developers and keep the flags as separate booleans.
+ */
+@ReadingConverter
+public class PairReadConverter implements Converter<Document, Pair> {
+
+	@Override
+	public Pair convert(Document document) {
+		boolean lean = document.containsKey(PairWriteConverter.FLAGS);
+		int flags = lean ? document.getInteger(PairWriteConverter.FLAGS).intValue() : getLegacyFlags(document);
+		List<Developer> devs = new ArrayList<>(2);
+		List<?> storedDevs = (List<?>) document.get("devs");
+		if (storedDevs != null) {
+			for (Object storedDev : storedDevs) {
+				boolean newDeveloper = (flags & (devs.isEmpty() ? PairWriteConverter.FIRST_NEW : PairWriteConverter.SECOND_NEW)) != 0;
+				devs.add(lean ? getDeveloper((String) storedDev, newDeveloper) : getLegacyDeveloper((Document) storedDev));
+			}
+		}
+		Pair result = new Pair(devs, (flags & PackedPairs.OPS) != 0, document.getString("track"));
+		result.setBuildPair((flags & PackedPairs.BUILD) != 0);
+		result.setCommunityPair((flags & PackedPairs.COMMUNITY) != 0);
+		result.setLockedPair((flags & PackedPairs.LOCKED) != 0);
+		return result;
+	}
+
+	/**
+	 * @return true when the pair is still stored with embedded developers
+	 */
+	public static boolean isLegacy(Document document) {
+		return !document.containsKey(PairWriteConverter.FLAGS);
+	}
+
+	private int getLegacyFlags(Document document) {
+		return (isTrue(document, "buildPair") ? PackedPairs.BUILD : 0) | (isTrue(document, "communityPair") ? PackedPairs.COMMUNITY : 0)
+				| (isTrue(document, "opsPair") ? PackedPairs.OPS : 0) | (isTrue(document, "isLockedPair") ? PackedPairs.LOCKED : 0);
+	}
+
+	private Developer getLegacyDeveloper(Document document) {
+		return getDeveloper(document.getString("_id"), isTrue(document, "newDeveloper"));
+	}
+
+	private Developer getDeveloper(String id, boolean newDeveloper) {
+		Developer result = new Developer(id);
+		result.setNew(newDeveloper);
+		return result;
+	}
+
+	private static boolean isTrue(Document document, String key) {
+		return Boolean.TRUE.equals(document.get(key));
+	}
+}
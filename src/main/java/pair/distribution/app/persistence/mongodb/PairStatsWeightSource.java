@@ -0,0 +1,227 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.helpers.PairsWeightSource;
+import pair.distribution.app.helpers.PairsWeightUpdates;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Counters of one board in the pair_stats collection, incremented for every stored day and decremented for every
+ * replaced or removed one. A pair counter holds the complete, build and community days of two developers, a track
+ * counter the days of a developer on a track, which also sum up to the developer's pairing days. Reading the
+ * weights is one query on the board index, however long the history is. Weights are not decayed or windowed.
+ * A marker document records that the counters of the board were counted from its stored days and kept up to date
+ * since.
+ */
+public class PairStatsWeightSource implements PairsWeightSource, PairsWeightUpdates {
+
+	static final String COLLECTION = "pair_stats";
+
+	private static final Logger logger = LoggerFactory.getLogger(PairStatsWeightSource.class);
+
+	private static final String[] PAIR_COUNTERS = { "complete", "build", "community" };
+	private static final String MARKER = "marker";
+	private static final String COUNTED = "counted";
+	private static final int BATCH_SIZE = 500;
+
+	private MongoTemplate mongoTemplate;
+	private String boardId;
+
+	public PairStatsWeightSource(MongoTemplate mongoTemplate, String boardId) {
+		this.mongoTemplate = mongoTemplate;
+		this.boardId = boardId;
+	}
+
+	public void ensureIndex() {
+		mongoTemplate.indexOps(COLLECTION).ensureIndex(new Index().on("boardId", Direction.ASC).on("ops", Direction.ASC));
+	}
+
+	/**
+	 * Counts the stored days of the board unless its counters are marked as counted already, so a restart keeps
+	 * the live counters.
+	 */
+	public void ensureCounted() {
+		if (mongoTemplate.exists(getMarkerQuery(), COLLECTION)) {
+			logger.info("Counters of board {} in {} are up to date", boardId, COLLECTION);
+		} else {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Counts all stored days of the board again, for counters which missed days while another weight source was used.
+	 * The board is marked as counted only when all days are counted.
+	 */
+	public void rebuild() {
+		removeCounters();
+		Map<Document, int[]> counters = new LinkedHashMap<>();
+		int days = 0;
+		try (CloseableIterator<DayPairs> storedDays = mongoTemplate.stream(Query.query(Criteria.where("boardId").is(boardId)), DayPairs.class)) {
+			while (storedDays.hasNext()) {
+				countDay(counters, storedDays.next(), 1);
+				if (++days % BATCH_SIZE == 0) {
+					increment(counters);
+					counters.clear();
+				}
+			}
+		}
+		increment(counters);
+		markCounted();
+		logger.info("Counted {} days of board {} into {}", days, boardId, COLLECTION);
+	}
+
+	/**
+	 * Drops the counted marker of all boards, for counters which are not kept up to date while another weight source
+	 * is used. Their boards are counted again once pair stats are used again.
+	 */
+	public static void forgetCounted(MongoTemplate mongoTemplate) {
+		mongoTemplate.remove(Query.query(Criteria.where(MARKER).is(COUNTED)), COLLECTION);
+	}
+
+	@Override
+	public void addDay(DayPairs dayPairs) {
+		updateDays(null, dayPairs);
+	}
+
+	@Override
+	public void removeDay(DayPairs dayPairs) {
+		updateDays(dayPairs, null);
+	}
+
+	@Override
+	public void replaceDay(DayPairs oldDayPairs, DayPairs newDayPairs) {
+		updateDays(oldDayPairs, newDayPairs);
+	}
+
+	@Override
+	public void reset() {
+		// the board has no stored days left, so its empty counters are complete
+		removeCounters();
+		markCounted();
+	}
+
+	@Override
+	public PairsWeightMatrix getPairsWeight(List<Developer> availableDevs, boolean opsPairs, PairWeightType type) {
+		return read(opsPairs).getPairsWeight(availableDevs, type);
+	}
+
+	@Override
+	public void applyDevelopersHistory(List<Developer> developers, boolean opsPairs) {
+		read(opsPairs).applyTo(developers);
+	}
+
+	@Override
+	public PairsWeightIndex inMemoryCopy() {
+		return PairsWeightIndex.inMemory(read(false), read(true));
+	}
+
+	public PairingHistoryStats read(boolean opsPairs) {
+		PairingHistoryStats result = new PairingHistoryStats();
+		for (Document counter : mongoTemplate.find(Query.query(Criteria.where("boardId").is(boardId).and("ops").is(opsPairs)), Document.class, COLLECTION)) {
+			Document key = (Document) counter.get("_id");
+			if (key.containsKey("developer")) {
+				result.addTrackCount(key.getString("developer"), key.getString("track"), getCount(counter, "days"));
+			} else {
+				result.addPairWeight(key.getString("first"), key.getString("second"), PairWeightType.COMPLETE, getCount(counter, "complete"));
+				result.addPairWeight(key.getString("first"), key.getString("second"), PairWeightType.BUILD, getCount(counter, "build"));
+				result.addPairWeight(key.getString("first"), key.getString("second"), PairWeightType.COMMUNITY, getCount(counter, "community"));
+			}
+		}
+		return result;
+	}
+
+	private void updateDays(DayPairs oldDayPairs, DayPairs newDayPairs) {
+		// deltas summed per counter first, so every counter gets one upsert and a replaced day nets out
+		Map<Document, int[]> counters = new LinkedHashMap<>();
+		if (oldDayPairs != null) {
+			countDay(counters, oldDayPairs, -1);
+		}
+		if (newDayPairs != null) {
+			countDay(counters, newDayPairs, 1);
+		}
+		increment(counters);
+	}
+
+	private void countDay(Map<Document, int[]> counters, DayPairs dayPairs, int delta) {
+		for (Pair pair : dayPairs.getPairs().values()) {
+			for (Developer developer : pair.getDevs()) {
+				Document key = new Document("boardId", boardId).append("ops", pair.isOpsPair()).append("developer", developer.getId()).append("track",
+						pair.getTrack());
+				counters.computeIfAbsent(key, id -> new int[1])[0] += delta;
+			}
+			if (pair.isComplete()) {
+				String firstId = pair.getFirstDev().getId();
+				String secondId = pair.getSecondDev().getId();
+				boolean ordered = firstId.compareTo(secondId) <= 0;
+				Document key = new Document("boardId", boardId).append("ops", pair.isOpsPair()).append("first", ordered ? firstId : secondId)
+						.append("second", ordered ? secondId : firstId);
+				int[] counts = counters.computeIfAbsent(key, id -> new int[PAIR_COUNTERS.length]);
+				counts[0] += delta;
+				counts[1] += pair.isBuildPair() ? delta : 0;
+				counts[2] += pair.isCommunityPair() ? delta : 0;
+			}
+		}
+	}
+
+	private void increment(Map<Document, int[]> counters) {
+		// a replaced day which nets out changes no counter
+		counters.values().removeIf(counts -> Arrays.stream(counts).allMatch(count -> count == 0));
+		if (counters.isEmpty()) {
+			return;
+		}
+		BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, COLLECTION);
+		for (Map.Entry<Document, int[]> counter : counters.entrySet()) {
+			Update update = new Update().setOnInsert("boardId", boardId).setOnInsert("ops", counter.getKey().get("ops"));
+			int[] counts = counter.getValue();
+			if (counts.length == 1) {
+				update.inc("days", counts[0]);
+			} else {
+				for (int i = 0; i < counts.length; i++) {
+					update.inc(PAIR_COUNTERS[i], counts[i]);
+				}
+			}
+			operations.upsert(Query.query(Criteria.where("_id").is(counter.getKey())), update);
+		}
+		operations.execute();
+	}
+
+	private void removeCounters() {
+		mongoTemplate.remove(Query.query(Criteria.where("boardId").is(boardId)), COLLECTION);
+	}
+
+	private void markCounted() {
+		mongoTemplate.upsert(getMarkerQuery(), new Update().set("boardId", boardId).set(MARKER, COUNTED), COLLECTION);
+	}
+
+	private Query getMarkerQuery() {
+		return Query.query(Criteria.where("_id").is(new Document("boardId", boardId).append(MARKER, COUNTED)));
+	}
+
+	private int getCount(Document counter, String field) {
+		Object count = counter.get(field);
+		return count == null ? 0 : ((Number) count).intValue();
+	}
+}
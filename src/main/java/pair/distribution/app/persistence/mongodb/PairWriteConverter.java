@@ -0,0 +1,36 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+import pair.distribution.app.helpers.PackedPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Stores a pair as developer ids, track and flags. The company, pairing days and track weights of the
+ * developers are generation scratch values and are not stored.
+ */
+@WritingConverter
+public class PairWriteConverter implements Converter<Pair, Document> {
+
+	/**
+	 * The {@link PackedPairs} flags plus whether the first and the second developer were new at that day.
+	 */
+	static final String FLAGS = "flags";
+	static final int FIRST_NEW = 1 << 4;
+	static final int SECOND_NEW = 1 << 5;
+
+	@Override
+	public Document convert(Pair pair) {
+		List<Developer> devs = pair.getDevs();
+		int flags = PackedPairs.flagsOf(pair) | (!devs.isEmpty() && devs.get(0).getNew() ? FIRST_NEW : 0)
+				| (devs.size() > 1 && devs.get(1).getNew() ? SECOND_NEW : 0);
+		return new Document("devs", devs.stream().map(Developer::getId).collect(Collectors.toList())).append("track", pair.getTrack()).append(FLAGS,
+				flags);
+	}
+}
@@ -0,0 +1,52 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Outcome of {@link TrelloPairsRepositoryCustom#syncDays}: dates of the days inserted and of the days replaced with
+ * different content, and the number of days found with the same content and removed.
+ */
+public class SyncReport {
+
+	private List<Date> insertedDates;
+	private List<Date> replacedDates;
+	private int unchanged;
+	private int removed;
+
+	public SyncReport(List<Date> insertedDates, List<Date> replacedDates, int unchanged, int removed) {
+		this.insertedDates = insertedDates;
+		this.replacedDates = replacedDates;
+		this.unchanged = unchanged;
+		this.removed = removed;
+	}
+
+	public int getInserted() {
+		return insertedDates.size();
+	}
+
+	public boolean isInserted(Date date) {
+		return insertedDates.contains(date);
+	}
+
+	public int getReplaced() {
+		return replacedDates.size();
+	}
+
+	public boolean isReplaced(Date date) {
+		return replacedDates.contains(date);
+	}
+
+	public int getUnchanged() {
+		return unchanged;
+	}
+
+	public int getRemoved() {
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		return "SyncReport [inserted=" + getInserted() + ", replaced=" + getReplaced() + ", unchanged=" + unchanged + ", removed=" + removed + "]";
+	}
+}
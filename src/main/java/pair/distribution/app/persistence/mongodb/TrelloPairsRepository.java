@@ -1,16 +1,49 @@
 package pair.distribution.app.persistence.mongodb;
 
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import pair.distribution.app.trello.entities.DayPairs;
 
-public interface TrelloPairsRepository extends MongoRepository<DayPairs, String> {
+public interface TrelloPairsRepository extends MongoRepository<DayPairs, String>, TrelloPairsRepositoryCustom {
 
 	List<DayPairs> findByDate(Date date);
+
+	List<DayPairs> findByDateIn(Collection<Date> dates);
+
+	List<DayPairs> findByDateGreaterThanEqual(Date date);
+
+	List<DayPairs> findByBoardId(String boardId);
+
+	List<DayPairs> findByBoardIdAndDate(String boardId, Date date);
+
+	List<DayPairs> findByBoardIdAndDateIn(String boardId, Collection<Date> dates);
+
+	List<DayPairs> findByBoardIdAndDateGreaterThanEqual(String boardId, Date date);
+
+	/**
+	 * @return the days strictly after from and strictly before to
+	 */
+	List<DayPairs> findByBoardIdAndDateBetween(String boardId, Date from, Date to);
+
+	List<DayPairs> findByBoardIdOrderByDateDesc(String boardId, Pageable pageable);
+
+	/**
+	 * @return the newest days of the board, newest first
+	 */
+	default List<DayPairs> findLastDaysByBoardId(String boardId, int days) {
+		return findByBoardIdOrderByDateDesc(boardId, PageRequest.of(0, days));
+	}
+
+	void deleteByBoardIdAndDate(String boardId, Date date);
+
+	void deleteByBoardId(String boardId);
 	
 	void deleteByDate(Date date);
 }
@@ -0,0 +1,34 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.Date;
+import java.util.List;
+
+import pair.distribution.app.trello.entities.DayPairs;
+
+public interface TrelloPairsRepositoryCustom {
+
+	/**
+	 * Upserts the days by board id and date and removes the stored days of removedDate in one unordered bulk
+	 * write. The days of removedDate are kept when one of the given days has that date, because the upsert
+	 * replaces them anyway and the order of the operations is not defined. The stored days of the given dates are
+	 * read first, days stored with the same content are not written.
+	 *
+	 * @param boardId the board of the days, null to match days by date only
+	 * @param removedDate date whose stored days are removed, null to remove nothing
+	 */
+	SyncReport syncDays(String boardId, List<DayPairs> days, Date removedDate);
+
+	/**
+	 * Sets the board id of all days stored without one in a single multi update, in place, so their ids and the
+	 * unique date index stay valid.
+	 *
+	 * @return the number of days updated
+	 */
+	long assignBoardToDaysWithoutBoard(String boardId);
+
+	/**
+	 * Creates the unique index on board id and date unless it exists. Fails when a board has more than one day
+	 * of the same date.
+	 */
+	void ensureDateIndex();
+}
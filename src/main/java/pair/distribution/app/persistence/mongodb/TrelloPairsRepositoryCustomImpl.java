@@ -0,0 +1,113 @@
+package pair.distribution.app.persistence.mongodb;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+import pair.distribution.app.trello.entities.DayPairs;
+
+public class TrelloPairsRepositoryCustomImpl implements TrelloPairsRepositoryCustom {
+
+	static final String DATE_INDEX = "boardId_date";
+
+	private static final String ID = "_id";
+
+	private MongoTemplate mongoTemplate;
+
+	public TrelloPairsRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public SyncReport syncDays(String boardId, List<DayPairs> days, Date removedDate) {
+		boolean remove = removedDate != null && days.stream().noneMatch(dayPairs -> dayPairs.getDate().equals(removedDate));
+		if (!remove && days.isEmpty()) {
+			return new SyncReport(new ArrayList<>(), new ArrayList<>(), 0, 0);
+		}
+		Map<Date, Document> storedDocuments = findStoredDocuments(boardId, days);
+		List<DayPairs> changedDays = new ArrayList<>();
+		List<Date> replacedDates = new ArrayList<>();
+		BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, DayPairs.class);
+		if (remove) {
+			operations.remove(getDateQuery(boardId, removedDate));
+		}
+		for (DayPairs dayPairs : days) {
+			Document document = new Document();
+			mongoTemplate.getConverter().write(dayPairs, document);
+			document.remove(ID);
+			Document storedDocument = storedDocuments.get(dayPairs.getDate());
+			if (document.equals(storedDocument)) {
+				continue;
+			}
+			if (storedDocument != null) {
+				replacedDates.add(dayPairs.getDate());
+			}
+			changedDays.add(dayPairs);
+			operations.upsert(getDateQuery(boardId, dayPairs.getDate()), getSetUpdate(document));
+		}
+		int unchanged = days.size() - changedDays.size();
+		if (!remove && changedDays.isEmpty()) {
+			return new SyncReport(new ArrayList<>(), replacedDates, unchanged, 0);
+		}
+		BulkWriteResult result = operations.execute();
+		// upserts report the index of their operation, which the remove operation precedes
+		int firstDayIndex = remove ? 1 : 0;
+		List<Date> insertedDates = result.getUpserts().stream().map(upsert -> changedDays.get(upsert.getIndex() - firstDayIndex).getDate())
+				.collect(Collectors.toList());
+		return new SyncReport(insertedDates, replacedDates, unchanged, result.getDeletedCount());
+	}
+
+	@Override
+	public long assignBoardToDaysWithoutBoard(String boardId) {
+		return mongoTemplate.updateMulti(Query.query(Criteria.where("boardId").is(null)), Update.update("boardId", boardId), DayPairs.class)
+				.getModifiedCount();
+	}
+
+	@Override
+	public void ensureDateIndex() {
+		// date descending, so the newest days of a board are the start of the index
+		mongoTemplate.indexOps(DayPairs.class).ensureIndex(new Index().on("boardId", Direction.ASC).on("date", Direction.DESC).unique().named(DATE_INDEX));
+	}
+
+	private Map<Date, Document> findStoredDocuments(String boardId, List<DayPairs> days) {
+		if (days.isEmpty()) {
+			return new HashMap<>();
+		}
+		List<Date> dates = days.stream().map(DayPairs::getDate).collect(Collectors.toList());
+		Criteria criteria = Criteria.where("date").in(dates);
+		Query query = Query.query(boardId == null ? criteria : criteria.and("boardId").is(boardId));
+		Map<Date, Document> result = new HashMap<>();
+		for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(DayPairs.class))) {
+			document.remove(ID);
+			result.put(document.getDate("date"), document);
+		}
+		return result;
+	}
+
+	// Update.fromDocument would make the fields a replacement document, which the bulk upsert rejects
+	private static Update getSetUpdate(Document document) {
+		Update result = new Update();
+		document.forEach(result::set);
+		return result;
+	}
+
+	private Query getDateQuery(String boardId, Date date) {
+		Criteria criteria = Criteria.where("date").is(date);
+		return Query.query(boardId == null ? criteria : criteria.and("boardId").is(boardId));
+	}
+}
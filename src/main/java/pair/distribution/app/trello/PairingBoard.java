@@ -5,7 +5,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.julienvey.trello.domain.Card;
@@ -30,9 +34,10 @@ public class PairingBoard {
     private static final String GET_LIST_CARDS = "/lists/{listId}/cards?";
 	private RestTemplateHttpClient httpClient;
 	private TrelloImpl trelloImpl;
-	private List<Developer> availableDevelopers;
-	private List<Developer> allDevelopers;
-	private List<Company> allCompanies;
+	private Set<Developer> availableDevelopers;
+	// one instance per developer id and company name, shared by the synced pairs and the generation
+	private Map<String, Developer> allDevelopers;
+	private Map<String, Company> allCompanies;
 	private List<Company> devOpsCompanies;
 	private List<String> tracks;
 	private List<DayPairs> pastPairs;
@@ -44,16 +49,16 @@ public class PairingBoard {
 		this.apiToken = apiToken;
 		this.apiKey = apiKey;
 		this.pairingBoardId = pairingBoardId;
-		availableDevelopers = new ArrayList<>();
-		allDevelopers = new ArrayList<>();
-		allCompanies = new ArrayList<>();
+		availableDevelopers = new LinkedHashSet<>();
+		allDevelopers = new LinkedHashMap<>();
+		allCompanies = new LinkedHashMap<>();
 		devOpsCompanies = new ArrayList<>();
 		httpClient = new RestTemplateHttpClient();
 		trelloImpl = new TrelloImpl(apiKey, apiToken, httpClient);
 	}
     
 	public List<Developer> getDevs() {
-		return allDevelopers.stream().filter(developer -> availableDevelopers.contains(developer)).collect(Collectors.toList());
+		return allDevelopers.values().stream().filter(availableDevelopers::contains).collect(Collectors.toList());
 	}
 	
 	public List<String> getTracks() {
@@ -69,12 +74,16 @@ public class PairingBoard {
    }
 
    public List<Company> getCompanies(){
-	   return allCompanies;
+	   return new ArrayList<>(allCompanies.values());
    }
    
 	public void syncTrelloBoardState() {
 		tracks = new ArrayList<>();
 		pastPairs = new ArrayList<>();
+		availableDevelopers.clear();
+		allDevelopers.clear();
+		allCompanies.clear();
+		devOpsCompanies.clear();
 		for (TList tList : getLits()) {
 			String listName = tList.getName();
 			List<Card> cards = getListCards(tList.getId());
@@ -120,7 +129,7 @@ public class PairingBoard {
 		return DEVOPS_PAIR_DESCRIPTION.equals(description);
 	}
 
-	private void syncDevs(List<Card> cards) {
+	protected void syncDevs(List<Card> cards) {
 		cards.stream().filter(card -> "devs".equalsIgnoreCase(card.getName()))
 		              .forEach(card -> availableDevelopers.addAll(getDevelopersFromCard(card)));
 	}
@@ -171,23 +180,13 @@ public class PairingBoard {
 		card.getIdMembers().stream().map(this::getDeveloperById).forEach(developer -> developer.setCompany(company));
 	}
 
-	private Company getCompanyByName(String companyName){
-		Company result = allCompanies.stream().filter(company -> company.getName().equals(companyName)).findFirst().orElse(null);
-		if(result == null){
-			result = new Company(companyName);
-			allCompanies.add(result);
-		}
-		
-		return result;
+	protected Company getCompanyByName(String companyName){
+		// keyed like Company.getName(), so "SAP" and "sap" are the same company
+		return allCompanies.computeIfAbsent(companyName.trim().toLowerCase(), name -> new Company(companyName));
 	}
 	
-	private Developer getDeveloperById(String developerId){
-		Developer result = allDevelopers.stream().filter(developer -> developer.equals(new Developer(developerId))).findFirst().orElse(new Developer(developerId));
-		if(!allDevelopers.contains(result)){
-			allDevelopers.add(result);
-		}
-		
-		return result;
+	protected Developer getDeveloperById(String developerId){
+		return allDevelopers.computeIfAbsent(developerId, Developer::new);
 	}
 
 	public List<TList> getLits(){
@@ -196,7 +195,7 @@ public class PairingBoard {
 	
 	public Date getDateFromListName(String name) throws ParseException{
 		String date = name.substring(name.indexOf('(') + 1, name.lastIndexOf(')'));
-		return new DayPairs().parse(date);
+		return DayPairs.parseDate(date);
 	}
 	
 	
@@ -248,7 +247,7 @@ public class PairingBoard {
 	
 	private TList createNewPairingList(DayPairs pairs, int daysIntoFuture) {
 		TrelloUrl createListURL = TrelloUrl.createUrl(CREATE_LISTS);
-		String name = "pairing(" + pairs.format(getFutureDate(pairs.getDate(), daysIntoFuture)) + ")";
+		String name = "pairing(" + DayPairs.formatDate(getFutureDate(pairs.getDate(), daysIntoFuture)) + ")";
 		TList tList = new TList();
 		tList.setName(name);
 		tList.setIdBoard(pairingBoardId);
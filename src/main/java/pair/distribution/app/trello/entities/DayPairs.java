@@ -2,36 +2,71 @@ package pair.distribution.app.trello.entities;
 
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import org.springframework.data.annotation.AccessType;
+import org.springframework.data.annotation.AccessType.Type;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
 
 public class DayPairs implements Comparable<DayPairs>{
 
+	// list name format, parsing also accepts days and months without leading zero
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+	private static final DateTimeFormatter DATE_PARSER = DateTimeFormatter.ofPattern("d-M-yyyy");
+
+	@Id
+	private String id;
 	private Map<String, Pair> pairs;
+	// stored documents are read through setDate, which keeps the epoch day in sync
+	@AccessType(Type.PROPERTY)
 	private Date date;
+	private String boardId;
+	@Transient
+	private long epochDay;
+	// lazily built from pairs and dropped on every change through this class, the first track wins like in a scan of
+	// pairs. The solo pair is published before the complete index, so parallel generation threads can build both
+	@Transient
+	private volatile Map<Pair, String> tracksByPair;
 	@Transient
-	private SimpleDateFormat dateFormatter;
+	private volatile Pair soloPair;
 	
 	public DayPairs() {
-		dateFormatter = new SimpleDateFormat("dd-MM-yyyy");
 		pairs = new HashMap<>();
-		date = getDateWithoutTime(new Date());
+		setLocalDate(LocalDate.now());
 	}
 	
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
 	public void setPairs(Map<String, Pair> pairs){
 		this.pairs = pairs;
+		invalidateIndex();
 	}
 	
+	/**
+	 * @return the pairs by track. Pairs must be added and replaced through this class, and a pair changed after
+	 *         adding it must be added again, otherwise the track index misses it
+	 */
 	public Map<String, Pair> getPairs() {
 		return pairs;
 	}
 	public void addPair(String track, Pair pair) {
 		this.pairs.put(track, pair);
+		invalidateIndex();
 	}
 	
 	public Set<String> getTracks() {
@@ -42,12 +77,33 @@ public class DayPairs implements Comparable<DayPairs>{
 		return date;
 	}
 	public void setDate(Date date) {
-		this.date = getDateWithoutTime(date);
+		setLocalDate(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+	}
+
+	public LocalDate getLocalDate() {
+		return LocalDate.ofEpochDay(epochDay);
+	}
+
+	public void setLocalDate(LocalDate localDate) {
+		this.epochDay = localDate.toEpochDay();
+		this.date = Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	public long getEpochDay() {
+		return epochDay;
+	}
+
+	public String getBoardId() {
+		return boardId;
+	}
+
+	public void setBoardId(String boardId) {
+		this.boardId = boardId;
 	}
 
 	@Override
 	public int compareTo(DayPairs otherPair) {
-		return getDate().compareTo(otherPair.getDate());
+		return Long.compare(epochDay, otherPair.epochDay);
 	}
 
 	public Pair getPairByTrack(String track) {
@@ -56,30 +112,54 @@ public class DayPairs implements Comparable<DayPairs>{
 
 	@Override
 	public String toString() {
-		return "Pairs [pairs=" + pairs + ", date=" + dateFormatter.format(date) + "]";
+		return "Pairs [pairs=" + pairs + ", date=" + DATE_FORMATTER.format(getLocalDate()) + "]";
 	}
 
 	public boolean hasPair(Pair pair) {
-		return pairs.containsValue(pair);
+		return getTrackByPair(pair) != null;
 	}
 
 	public void replacePairWith(Pair oldPair, Pair newPair) {
-		pairs.keySet().stream().filter(key -> pairs.get(key).equals(oldPair) ).findFirst().ifPresent(track -> pairs.put(track, newPair));
+		String track = getTrackByPair(oldPair);
+		if (track != null) {
+			addPair(track, newPair);
+		}
 	}
 
 	public String getTrackByPair(Pair pair) {
-		return pairs.keySet().stream().filter(key -> pairs.get(key).equals(pair) ).findFirst().orElse(null);
+		return getIndex().get(pair);
 	}
 	
 	public Pair getSoloPair() {
-		return pairs.keySet().stream().filter(track -> getPairByTrack(track).isSolo() )
-				                      .findFirst()
-				                      .map(this::getPairByTrack)
-				                      .orElse(null);
+		getIndex();
+		return soloPair;
 	}
 	
 	public void addPiars(Map<String, Pair> pairsToAdd) {
 		pairs.putAll(pairsToAdd);
+		invalidateIndex();
+	}
+
+	private Map<Pair, String> getIndex() {
+		Map<Pair, String> result = tracksByPair;
+		if (result == null) {
+			result = new HashMap<>();
+			Pair solo = null;
+			for (Map.Entry<String, Pair> trackPair : pairs.entrySet()) {
+				result.putIfAbsent(trackPair.getValue(), trackPair.getKey());
+				if (solo == null && trackPair.getValue().isSolo()) {
+					solo = trackPair.getValue();
+				}
+			}
+			soloPair = solo;
+			tracksByPair = result;
+		}
+		return result;
+	}
+
+	private void invalidateIndex() {
+		tracksByPair = null;
+		soloPair = null;
 	}
 	
 	
@@ -87,7 +167,7 @@ public class DayPairs implements Comparable<DayPairs>{
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((date == null) ? 0 : date.hashCode());
+		result = prime * result + Long.hashCode(epochDay);
 		return result;
 	}
 
@@ -100,28 +180,28 @@ public class DayPairs implements Comparable<DayPairs>{
 		if (getClass() != obj.getClass())
 			return false;
 		DayPairs other = (DayPairs) obj;
-		if (date == null) {
-			if (other.date != null)
-				return false;
-		} else if (!date.equals(other.date)) {
-			return false;
-		}
-		return true;
-	}
-	
-	private Date getDateWithoutTime(Date dateToFormat){
-		try {
-			return dateFormatter.parse(dateFormatter.format(dateToFormat));
-		} catch (ParseException e) {
-			throw new IllegalArgumentException(e);
-		}			
+		return epochDay == other.epochDay;
 	}
 
 	public String format(Date dateToFormat) {
-		return dateFormatter.format(dateToFormat);
+		return formatDate(dateToFormat);
 	}
 
 	public Date parse(String dateToParse) throws ParseException {
-		return dateFormatter.parse(dateToParse);
+		return parseDate(dateToParse);
+	}
+
+	public static String formatDate(Date dateToFormat) {
+		return DATE_FORMATTER.format(dateToFormat.toInstant().atZone(ZoneId.systemDefault()));
+	}
+
+	public static Date parseDate(String dateToParse) throws ParseException {
+		try {
+			// text after the date is ignored like SimpleDateFormat did, list names may carry a note after it
+			LocalDate localDate = LocalDate.from(DATE_PARSER.parse(dateToParse.trim(), new ParsePosition(0)));
+			return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+		} catch (DateTimeParseException e) {
+			throw new ParseException(e.getMessage(), e.getErrorIndex());
+		}
 	}
 }
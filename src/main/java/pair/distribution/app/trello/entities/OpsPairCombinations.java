@@ -1,48 +1,49 @@
 package pair.distribution.app.trello.entities;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.LocalDate;
+import java.time.temporal.TemporalField;
 import java.time.temporal.WeekFields;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 public class OpsPairCombinations extends PairCombinations {
 	
-	private List<DayPairs> pastPairs;
+	private static final TemporalField WEEK_OF_YEAR = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
+
+	private PairHistory pastPairs;
 	private int daysIntoFuture;
 	private Company company;
 
 	public OpsPairCombinations(List<DayPairs> dayPairs, int daysIntoFuture) {
-		this.pastPairs = dayPairs;
+		this(new PairHistory(dayPairs), daysIntoFuture);
+	}
+
+	public OpsPairCombinations(PairHistory pastPairs, int daysIntoFuture) {
+		this.pastPairs = pastPairs;
 		this.daysIntoFuture = daysIntoFuture;
-		sortByDescendDate();
 	}
 
 	public OpsPairCombinations(List<DayPairs> dayPairs) {
 		this(dayPairs, 0);
 	}
+
+	private OpsPairCombinations(OpsPairCombinations pairCombinations, Company company) {
+		this.pastPairs = pairCombinations.pastPairs;
+		this.daysIntoFuture = pairCombinations.daysIntoFuture;
+		this.company = company;
+	}
 	
 	@Override
 	public List<Pair> getPairs() {
-		List<Pair> result = new ArrayList<>();
-		pastPairs.stream().forEach(dayPairs -> dayPairs.getPairs().values().stream().filter(Pair::isOpsPair).forEach(result::add));
-		return result;
+		return pastPairs.getPairs(true);
 	}
 
 	@Override
 	public boolean isRotationTime(List<String> possibleTracks, List<Developer> availableDevs, boolean rotateEveryday) {
 		if(company != null && company.isDevOpsRotationWeekly()) {
-			LocalDateTime currentWeekDate = LocalDateTime.ofInstant(getStartDate().toInstant(), ZoneId.systemDefault());
 			DayPairs lastDayPairs = getLastDayPairs();
 			if (lastDayPairs != null) {
-				LocalDateTime lastPairWeekDate = LocalDateTime.ofInstant(lastDayPairs.getDate().toInstant(), ZoneId.systemDefault());
-				WeekFields weekFields = WeekFields.of(Locale.getDefault());
-				return currentWeekDate.get(weekFields.weekOfWeekBasedYear()) != lastPairWeekDate.get(weekFields.weekOfWeekBasedYear());
+				return getStartDate().get(WEEK_OF_YEAR) != lastDayPairs.getLocalDate().get(WEEK_OF_YEAR);
 			}
 			return false;
 		}
@@ -51,16 +52,14 @@ public class OpsPairCombinations extends PairCombinations {
 
 	@Override
 	public List<Pair> getPastPairs(int daysBack) {
-		if(pastPairs.size() > daysBack) {
-			return pastPairs.get(daysBack).getPairs().values().stream().filter(Pair::isOpsPair).collect(Collectors.toList());
-		}
-		return null;
+		return pastPairs.getPastPairs(daysBack, true);
 	}
 
 	@Override
 	public Pair getPastPairByTrack(int daysBack, String track) {
-		if(pastPairs.size() > daysBack) {
-			Pair pairByTrack = pastPairs.get(daysBack).getPairByTrack(track);
+		DayPairs dayPairs = pastPairs.getDay(daysBack);
+		if(dayPairs != null) {
+			Pair pairByTrack = dayPairs.getPairByTrack(track);
 			if(pairByTrack != null && !pairByTrack.isOpsPair()) {
 				throw new RuntimeException("Dev Pair should be Ops for track: " + track);
 			}
@@ -71,24 +70,20 @@ public class OpsPairCombinations extends PairCombinations {
 
 	public void setCompany(Company company) {
 		this.company = company;
-}
+	}
 
-	private void sortByDescendDate() {
-		Collections.sort(pastPairs);
-		Collections.reverse(pastPairs);
+	/**
+	 * @return the same, already sorted history seen from one company, so companies can be handled in parallel
+	 */
+	public OpsPairCombinations forCompany(Company company) {
+		return new OpsPairCombinations(this, company);
 	}
-	
+
 	private DayPairs getLastDayPairs() {
-		if(!pastPairs.isEmpty()) {
-			return pastPairs.get(0);
-		}
-		return null;
+		return pastPairs.getDay(0);
 	}
 	
-	private Date getStartDate() {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(new Date());
-		cal.add(Calendar.DATE, daysIntoFuture);
-		return cal.getTime();
+	private LocalDate getStartDate() {
+		return LocalDate.now().plusDays(daysIntoFuture);
 	}
 }
@@ -2,9 +2,7 @@ package pair.distribution.app.trello.entities;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 public class Pair {
 
@@ -49,15 +47,17 @@ public class Pair {
 	}
 	
 	public void setDevs(List<Developer> devs) {
-		this.devs.addAll(devs);
-		this.devs.removeIf(Objects::isNull);
-		Collections.sort(this.devs);
+		devs.stream().forEach(this::addDev);
 	}
 
 	public void addDev(Developer dev) {
 		if (dev != null){
-			devs.add(dev);
-			Collections.sort(devs);	
+			// keeps the devs sorted, a pair has at most two
+			int index = devs.size();
+			while (index > 0 && devs.get(index - 1).compareTo(dev) > 0) {
+				index--;
+			}
+			devs.add(index, dev);
 		}
 	}
 
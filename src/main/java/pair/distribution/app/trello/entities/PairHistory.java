@@ -0,0 +1,98 @@
+package pair.distribution.app.trello.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Past days sorted once and their pairs split once into dev and ops pairs, shared by
+ * {@link DevPairCombinations} and {@link OpsPairCombinations}. Days are stored oldest first so a new day
+ * is appended; the pair lists handed out are read only views, not copies.
+ */
+public class PairHistory {
+
+	private List<DayPairs> days;
+	private FlatPairs devPairs;
+	private FlatPairs opsPairs;
+
+	public PairHistory(List<DayPairs> pastPairs) {
+		days = new ArrayList<>(pastPairs);
+		Collections.sort(days);
+		devPairs = new FlatPairs();
+		opsPairs = new FlatPairs();
+		days.stream().forEach(this::splitPairs);
+	}
+
+	public int size() {
+		return days.size();
+	}
+
+	/**
+	 * @return the day daysBack days before the newest one, null when the history is shorter
+	 */
+	public DayPairs getDay(int daysBack) {
+		return daysBack < days.size() ? days.get(days.size() - 1 - daysBack) : null;
+	}
+
+	/**
+	 * @return all dev or ops pairs, oldest day first
+	 */
+	public List<Pair> getPairs(boolean ops) {
+		return (ops ? opsPairs : devPairs).getAll();
+	}
+
+	/**
+	 * @return the dev or ops pairs of the day daysBack days before the newest one, null when the history is shorter
+	 */
+	public List<Pair> getPastPairs(int daysBack, boolean ops) {
+		return daysBack < days.size() ? (ops ? opsPairs : devPairs).getDay(days.size() - 1 - daysBack) : null;
+	}
+
+	public void addNewestDay(DayPairs dayPairs) {
+		days.add(dayPairs);
+		splitPairs(dayPairs);
+	}
+
+	private void splitPairs(DayPairs dayPairs) {
+		for (Pair pair : dayPairs.getPairs().values()) {
+			(pair.isOpsPair() ? opsPairs : devPairs).add(pair);
+		}
+		devPairs.endDay();
+		opsPairs.endDay();
+	}
+
+	/**
+	 * Pairs of all days in one array, dayStarts[i] is the index of the first pair of day i.
+	 */
+	private static class FlatPairs {
+
+		private Pair[] pairs = new Pair[16];
+		private int size;
+		private int[] dayStarts = new int[] { 0, 0 };
+		private int daysCount;
+
+		void add(Pair pair) {
+			if (size == pairs.length) {
+				pairs = Arrays.copyOf(pairs, size * 2);
+			}
+			pairs[size++] = pair;
+		}
+
+		void endDay() {
+			daysCount++;
+			if (daysCount + 1 > dayStarts.length) {
+				dayStarts = Arrays.copyOf(dayStarts, dayStarts.length * 2);
+			}
+			dayStarts[daysCount] = size;
+		}
+
+		List<Pair> getAll() {
+			return Collections.unmodifiableList(Arrays.asList(pairs).subList(0, size));
+		}
+
+		List<Pair> getDay(int dayIndex) {
+			return Collections.unmodifiableList(Arrays.asList(pairs).subList(dayStarts[dayIndex], dayStarts[dayIndex + 1]));
+		}
+	}
+}
@@ -5,20 +5,37 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import pair.distribution.app.helpers.DayPairsHelper;
+import pair.distribution.app.helpers.DayPairsHelper.PairingEngine;
+import pair.distribution.app.helpers.PairingBoardRegistry;
+import pair.distribution.app.helpers.PairsWeightIndex;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.helpers.PairsWeightSource;
 import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
 import pair.distribution.app.trello.PairingBoard;
 import pair.distribution.app.trello.entities.Company;
@@ -26,8 +43,8 @@ import pair.distribution.app.trello.entities.DayPairs;
 import pair.distribution.app.trello.entities.DevPairCombinations;
 import pair.distribution.app.trello.entities.Developer;
 import pair.distribution.app.trello.entities.OpsPairCombinations;
-import pair.distribution.app.trello.entities.Pair;
 import pair.distribution.app.trello.entities.PairCombinations;
+import pair.distribution.app.trello.entities.PairHistory;
 
 
 
@@ -35,53 +52,88 @@ import pair.distribution.app.trello.entities.PairCombinations;
 public class TrelloPairsController {
    
     private static final Logger logger = LoggerFactory.getLogger(TrelloPairsController.class);
+    private static final int RETRY_AFTER_SECONDS = 30;
     
     private TrelloPairsRepository repository;
+    private PairingBoardRegistry pairingBoardRegistry;
 	@Value("${trello.api.token}")
 	private String apiToken;
 	@Value("${trello.api.key}")
 	private String apiKey;
-	@Value("${trello.pairing.board.id}")
-	private String pairingBoardId;
 	
 	private String[] messages = { "Have a nice day!", "Happy pairing!", "Go go go!", "To the keyboards!" };
 
     @Autowired
-    public TrelloPairsController(TrelloPairsRepository repository) {
+    public TrelloPairsController(TrelloPairsRepository repository, PairingBoardRegistry pairingBoardRegistry) {
         this.repository = repository;
+        this.pairingBoardRegistry = pairingBoardRegistry;
     }
 
     @RequestMapping(value = "/pairs/trello", method = RequestMethod.GET)
-    public String pairs(@RequestParam(value = "everyday", defaultValue="false") boolean everyday) throws IOException {
-		generatePairs(0, everyday);
+    public String pairs(@RequestParam(value = "everyday", defaultValue="false") boolean everyday,
+    		@RequestParam(value = "engine", defaultValue="greedy") String engine, @RequestParam(value = "board", required = false) String board) throws IOException {
+		generatePairs(board, 0, everyday, getPairingEngine(engine));
 		return generateHtmlOutput();
     }
 
     @RequestMapping(value = "/pairs/trello/json", method = RequestMethod.GET)
-    public DayPairs pairsJson(@RequestParam(value = "everyday", defaultValue="false") boolean everyday) {
-	    return generatePairs(0, everyday);
+    public DayPairs pairsJson(@RequestParam(value = "everyday", defaultValue="false") boolean everyday,
+    		@RequestParam(value = "engine", defaultValue="greedy") String engine, @RequestParam(value = "board", required = false) String board) {
+	    return generatePairs(board, 0, everyday, getPairingEngine(engine));
+    }
+
+    @RequestMapping(value = "/pairs/forecast/trello", method = RequestMethod.GET)
+    public List<DayPairs> forecast(@RequestParam("days") int days, @RequestParam(value = "everyday", defaultValue="false") boolean everyday,
+    		@RequestParam(value = "engine", defaultValue="greedy") String engine, @RequestParam(value = "board", required = false) String board) {
+    		PairingEngine pairingEngine = getPairingEngine(engine);
+    		String boardId = pairingBoardRegistry.resolveBoardId(board);
+    		return pairingBoardRegistry.execute(boardId, () -> forecastPairs(boardId, days, everyday, pairingEngine));
     }
 
     @RequestMapping(value = "/pairs/test/trello", method = RequestMethod.GET)
-    public DayPairs pairs(@RequestParam("days") int daysIntoFuture, @RequestParam(value = "everyday", defaultValue="false") boolean everyday ) {
-    		return generatePairs(daysIntoFuture, everyday);
+    public DayPairs pairs(@RequestParam("days") int daysIntoFuture, @RequestParam(value = "everyday", defaultValue="false") boolean everyday,
+    		@RequestParam(value = "engine", defaultValue="greedy") String engine, @RequestParam(value = "board", required = false) String board) {
+    		return generatePairs(board, daysIntoFuture, everyday, getPairingEngine(engine));
     }
 
-	private DayPairs generatePairs(int daysIntoFuture, boolean everydayRotation) {
-		PairingBoard pairingBoardTrello = new PairingBoard(apiToken, apiKey, pairingBoardId);
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<String> boardBusy(RejectedExecutionException e) {
+		// the queue of the board is full, the request was not started
+		logger.warn("Pairing board busy, rejecting request", e);
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+				.body("Pairing board is busy, retry later");
+	}
+
+	private PairingEngine getPairingEngine(String engine) {
+		try {
+			return PairingEngine.fromName(engine);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown pairing engine: " + engine, e);
+		}
+	}
+
+	private DayPairs generatePairs(String board, int daysIntoFuture, boolean everydayRotation, PairingEngine pairingEngine) {
+		String boardId = pairingBoardRegistry.resolveBoardId(board);
+		return pairingBoardRegistry.execute(boardId, () -> generatePairs(boardId, pairingBoardRegistry.getPairsWeightSource(boardId), daysIntoFuture,
+				everydayRotation, pairingEngine));
+	}
+
+	private DayPairs generatePairs(String boardId, PairsWeightSource pairsWeightSource, int daysIntoFuture, boolean everydayRotation,
+			PairingEngine pairingEngine) {
+		PairingBoard pairingBoardTrello = new PairingBoard(apiToken, apiKey, boardId);
 		pairingBoardTrello.syncTrelloBoardState();
-		logger.info("Syncing state finished. Updating database state");
-		DayPairsHelper pairsHelper = new DayPairsHelper(repository, everydayRotation);
+		logger.info("Syncing state finished for board {}. Updating database state", boardId);
+		DayPairsHelper pairsHelper = new DayPairsHelper(repository, boardId, everydayRotation, pairingBoardRegistry.getPairsWeightUpdates(boardId),
+				pairingEngine);
 		pairsHelper.updateDataBaseWithTrelloContent(pairingBoardTrello.getPastPairs());
-		List<DayPairs> pastPairs = repository.findAll();
-		PairCombinations pairCombination = new DevPairCombinations(pastPairs);
-		OpsPairCombinations devOpsPairCombination = new OpsPairCombinations(pastPairs, daysIntoFuture);
-
-		List<DayPairs> todayDevOpsPairs = generateTodayOpsPairs(pairingBoardTrello, pairsHelper, devOpsPairCombination,
-				pairingBoardTrello.getDevs(), pairingBoardTrello.getDevOpsCompanies());
-		DayPairs todayPairs = generateTodayDevPairs(pairingBoardTrello, pairsHelper, pairCombination,
-				getTodayDevelopers(pairingBoardTrello, todayDevOpsPairs), !todayDevOpsPairs.isEmpty());
-		todayDevOpsPairs.stream().forEach(devOpsPairs -> todayPairs.addPiars(devOpsPairs.getPairs()));
+		List<DayPairs> pastPairs = repository.findLastDaysByBoardId(boardId, DayPairsHelper.ROTATION_HISTORY_DAYS);
+		PairHistory pairHistory = new PairHistory(pastPairs);
+		PairCombinations pairCombination = new DevPairCombinations(pairHistory);
+		OpsPairCombinations devOpsPairCombination = new OpsPairCombinations(pairHistory, daysIntoFuture);
+
+		DayPairs todayPairs = generateDayPairs(boardId, pairingBoardTrello, pairsHelper, pairsWeightSource, pairCombination, devOpsPairCombination,
+				pairingBoardTrello.getDevs());
+		todayPairs.setBoardId(boardId);
 
 		pairingBoardTrello.addTodayPairsToBoard(todayPairs, daysIntoFuture);
 		logger.info("Trello board has been updated");
@@ -89,6 +141,59 @@ public class TrelloPairsController {
 		return todayPairs;
 	}
 
+	private List<DayPairs> forecastPairs(String boardId, int days, boolean everydayRotation, PairingEngine pairingEngine) {
+		PairingBoard pairingBoardTrello = new PairingBoard(apiToken, apiKey, boardId);
+		pairingBoardTrello.syncTrelloBoardState();
+		// the weights of the configured source, the board and the simulated days are added only in memory
+		PairsWeightIndex forecastWeightIndex = pairingBoardRegistry.getPairsWeightSource(boardId).inMemoryCopy();
+		DayPairsHelper pairsHelper = new DayPairsHelper(repository, boardId, everydayRotation, forecastWeightIndex, pairingEngine);
+		pairsHelper.mergeWeightsWithTrelloContent(pairingBoardTrello.getPastPairs());
+		List<DayPairs> pastPairs = pairsHelper.mergeWithTrelloContent(repository.findLastDaysByBoardId(boardId, DayPairsHelper.ROTATION_HISTORY_DAYS),
+				pairingBoardTrello.getPastPairs());
+		PairHistory pairHistory = new PairHistory(pastPairs);
+		DevPairCombinations pairCombination = new DevPairCombinations(pairHistory);
+		List<DayPairs> result = new ArrayList<>();
+		for (int daysIntoFuture = 0; daysIntoFuture < days; daysIntoFuture++) {
+			OpsPairCombinations devOpsPairCombination = new OpsPairCombinations(pairHistory, daysIntoFuture);
+			DayPairs dayPairs = generateDayPairs(boardId, pairingBoardTrello, pairsHelper, forecastWeightIndex, pairCombination, devOpsPairCombination,
+					copyDevelopers(pairingBoardTrello.getDevs()));
+			dayPairs.setDate(getFutureDate(daysIntoFuture));
+			dayPairs.setBoardId(boardId);
+			pairCombination.addNewestDay(dayPairs);
+			forecastWeightIndex.addDay(dayPairs);
+			result.add(dayPairs);
+		}
+		logger.info("Forecast for {} days generated for board {}", days, boardId);
+		return result;
+	}
+
+	private DayPairs generateDayPairs(String boardId, PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper, PairsWeightSource weightSource,
+			PairCombinations pairCombination, OpsPairCombinations devOpsPairCombination, List<Developer> devs) {
+		List<DayPairs> todayDevOpsPairs = generateTodayOpsPairs(boardId, pairingBoardTrello, pairsHelper, weightSource, devOpsPairCombination,
+				devs, pairingBoardTrello.getDevOpsCompanies());
+		DayPairs todayPairs = generateTodayDevPairs(pairingBoardTrello, pairsHelper, weightSource, pairCombination,
+				getTodayDevelopers(devs, todayDevOpsPairs), !todayDevOpsPairs.isEmpty());
+		todayDevOpsPairs.stream().forEach(devOpsPairs -> todayPairs.addPiars(devOpsPairs.getPairs()));
+		return todayPairs;
+	}
+
+	private List<Developer> copyDevelopers(List<Developer> developers) {
+		// generation marks developers with context, every simulated day starts from fresh ones
+		return developers.stream().map(developer -> {
+			Developer copy = new Developer(developer.getId());
+			copy.setCompany(developer.getCompany());
+			copy.setNew(developer.getNew());
+			return copy;
+		}).collect(Collectors.toList());
+	}
+
+	private Date getFutureDate(int daysIntoFuture) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(new Date());
+		cal.add(Calendar.DATE, daysIntoFuture);
+		return cal.getTime();
+	}
+
 	private String generateHtmlOutput() throws IOException {
 		ClassLoader classLoader = getClass().getClassLoader();
 		InputStream inputStream = classLoader.getResourceAsStream("output.html");
@@ -110,25 +215,25 @@ public class TrelloPairsController {
 		return builder.toString();
 	}
 
-	private List<Developer> getTodayDevelopers(PairingBoard pairingBoardTrello, List<DayPairs> todayDevOpsPairs) {
-		List<Developer> todayDevDevelopers = new ArrayList<>(pairingBoardTrello.getDevs());
-		todayDevOpsPairs.stream().forEach(dayPairs -> dayPairs.getPairs().values().stream().forEach(pair -> todayDevDevelopers.removeAll(pair.getDevs())));
-		return todayDevDevelopers;
+	private List<Developer> getTodayDevelopers(List<Developer> devs, List<DayPairs> todayDevOpsPairs) {
+		Set<Developer> todayDevOpsDevelopers = new HashSet<>();
+		todayDevOpsPairs.stream().forEach(dayPairs -> dayPairs.getPairs().values().stream().forEach(pair -> todayDevOpsDevelopers.addAll(pair.getDevs())));
+		return devs.stream().filter(developer -> !todayDevOpsDevelopers.contains(developer)).collect(Collectors.toList());
 	}
 
-	private DayPairs generateTodayDevPairs(PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper, PairCombinations pairCombination, List<Developer> todayDevs, boolean opsPair) {
-		Map<Pair, Integer> pairsWeight = pairsHelper.buildPairsWeightFromPastPairing(pairCombination, todayDevs);
-		pairsHelper.buildDevelopersPairingDays(pairCombination, todayDevs);
-		pairsHelper.adaptPairsWeight(pairsWeight, todayDevs);
+	private DayPairs generateTodayDevPairs(PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper, PairsWeightSource pairsWeightSource,
+			PairCombinations pairCombination, List<Developer> todayDevs, boolean opsPair) {
+		PairsWeightMatrix pairsWeight = pairsWeightSource.getPairsWeight(todayDevs, false, PairWeightType.COMPLETE);
+		pairsWeightSource.applyDevelopersHistory(todayDevs, false);
+		pairsHelper.adaptPairsWeight(pairsWeight);
 		logger.info("Pairs weight after adaptation: {}", pairsWeight);
-		pairsHelper.buildDevelopersTracksWeightFromPastPairing(pairCombination, todayDevs);
 		logger.info("Tracks are: {} today devs are: {}", pairingBoardTrello.getTracks(), todayDevs);
 		DayPairs todayDevPairs = pairsHelper.generateNewDayPairs(pairingBoardTrello.getTracks(), todayDevs, pairCombination, pairsWeight, pairingBoardTrello.getCompanies());
 		logger.info("Today pairs are: {}",  todayDevPairs);
 
 		if(!opsPair) {
-			Map<Pair, Integer> buildPairsWeight = pairsHelper.buildBuildPairsWeightFromPastPairing(pairCombination, todayDevs);
-			Map<Pair, Integer> communityPairsWeight = pairsHelper.buildCommunityPairsWeightFromPastPairing(pairCombination, todayDevs);
+			PairsWeightMatrix buildPairsWeight = pairsWeightSource.getPairsWeight(todayDevs, false, PairWeightType.BUILD);
+			PairsWeightMatrix communityPairsWeight = pairsWeightSource.getPairsWeight(todayDevs, false, PairWeightType.COMMUNITY);
 			logger.info("CommunityPairs weight is: {} BuildPairs weight is: {}", communityPairsWeight, buildPairsWeight);
 			pairsHelper.setBuildPair(todayDevPairs.getPairs().values(), buildPairsWeight);
 			pairsHelper.setCommunityPair(todayDevPairs.getPairs().values(), communityPairsWeight);
@@ -137,22 +242,25 @@ public class TrelloPairsController {
 		return todayDevPairs;
 	}
 
-	private List<DayPairs> generateTodayOpsPairs(PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper, OpsPairCombinations devOpsPairCombination,
-			List<Developer> todayDevs, List<Company> devOpsCompanies) {
-		List<DayPairs> todayPairs = new ArrayList<>();
-
-		for (Company company : devOpsCompanies) {
-			List<Developer> companyDevs = company.getCompanyExperiencedDevs(todayDevs);
-			logger.info("Company : {} devs are: {}", company.getName(), companyDevs);
-			Map<Pair, Integer> companyDevOpsPairsWeight = pairsHelper.buildPairsWeightFromPastPairing(devOpsPairCombination, companyDevs);
-			logger.info("DevOpsPairs weight for company: {} is {}", company.getName(), companyDevOpsPairsWeight);
-			devOpsPairCombination.setCompany(company);
-			DayPairs dayPairs = pairsHelper.generateNewDayPairs(Arrays.asList(company.getTrack()), companyDevs, devOpsPairCombination, companyDevOpsPairsWeight, pairingBoardTrello.getCompanies());
-			dayPairs.getPairs().values().stream().forEach(pair -> { pair.setOpsPair(true); pair.setBuildPair(true); pair.setCommunityPair(true); });
-			todayPairs.add(dayPairs);
-			logger.info("Today DevOpsPairs for company: {} are {}", company.getName(), todayPairs);
-		}
-		
-		return todayPairs;
+	private List<DayPairs> generateTodayOpsPairs(String boardId, PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper,
+			PairsWeightSource pairsWeightSource, OpsPairCombinations devOpsPairCombination, List<Developer> todayDevs, List<Company> devOpsCompanies) {
+		// companies share no developers, the results keep the companies order
+		List<Callable<DayPairs>> companyTasks = devOpsCompanies.stream()
+				.map(company -> (Callable<DayPairs>) () -> generateCompanyOpsPairs(pairingBoardTrello, pairsHelper, pairsWeightSource,
+						devOpsPairCombination.forCompany(company), todayDevs, company))
+				.collect(Collectors.toList());
+		return pairingBoardRegistry.executeAll(boardId, companyTasks);
+	}
+
+	private DayPairs generateCompanyOpsPairs(PairingBoard pairingBoardTrello, DayPairsHelper pairsHelper, PairsWeightSource pairsWeightSource,
+			OpsPairCombinations companyPairCombination, List<Developer> todayDevs, Company company) {
+		List<Developer> companyDevs = company.getCompanyExperiencedDevs(todayDevs);
+		logger.info("Company : {} devs are: {}", company.getName(), companyDevs);
+		PairsWeightMatrix companyDevOpsPairsWeight = pairsWeightSource.getPairsWeight(companyDevs, true, PairWeightType.COMPLETE);
+		logger.info("DevOpsPairs weight for company: {} is {}", company.getName(), companyDevOpsPairsWeight);
+		DayPairs dayPairs = pairsHelper.generateNewDayPairs(Arrays.asList(company.getTrack()), companyDevs, companyPairCombination, companyDevOpsPairsWeight, pairingBoardTrello.getCompanies());
+		dayPairs.getPairs().values().stream().forEach(pair -> { pair.setOpsPair(true); pair.setBuildPair(true); pair.setCommunityPair(true); });
+		logger.info("Today DevOpsPairs for company: {} are {}", company.getName(), dayPairs);
+		return dayPairs;
 	}
 }
@@ -4,8 +4,10 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import pair.distribution.app.helpers.PairingBoardRegistry;
 import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
 import pair.distribution.app.trello.entities.DayPairs;
 
@@ -14,19 +16,23 @@ import pair.distribution.app.trello.entities.DayPairs;
 @RequestMapping(value = "/pairs/content/trello")
 public class TrelloPairsDbController {
     private TrelloPairsRepository repository;
+    private PairingBoardRegistry pairingBoardRegistry;
 
     @Autowired
-    public TrelloPairsDbController(TrelloPairsRepository repository) {
+    public TrelloPairsDbController(TrelloPairsRepository repository, PairingBoardRegistry pairingBoardRegistry) {
         this.repository = repository;
+        this.pairingBoardRegistry = pairingBoardRegistry;
     }
 
     @RequestMapping(method = RequestMethod.GET)
-    public List<DayPairs> pairs() {
-		return repository.findAll();
+    public List<DayPairs> pairs(@RequestParam(value = "board", required = false) String board) {
+		return repository.findByBoardId(pairingBoardRegistry.resolveBoardId(board));
     }
 
     @RequestMapping(method = RequestMethod.DELETE)
-    public void clear() {
-       repository.deleteAll();
+    public void clear(@RequestParam(value = "board", required = false) String board) {
+       String boardId = pairingBoardRegistry.resolveBoardId(board);
+       repository.deleteByBoardId(boardId);
+       pairingBoardRegistry.resetPairsWeights(boardId);
     }
 }
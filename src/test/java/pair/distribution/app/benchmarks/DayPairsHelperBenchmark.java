@@ -0,0 +1,151 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import pair.distribution.app.helpers.DayPairsHelper;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Throughput of the daily pairing steps of {@link DayPairsHelper} on a synthetic, randomly paired history.
+ * Run with the benchmark profile, which adds the GC profiler for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DayPairsHelperBenchmark {
+
+	@Param({ "10", "30", "100" })
+	private int teamSize;
+
+	@Param({ "4", "12" })
+	private int tracksCount;
+
+	@Param({ "0", "2" })
+	private int companiesCount;
+
+	@Param({ "30", "365" })
+	private int historyDays;
+
+	private List<String> tracks;
+	private List<Developer> devs;
+	private List<Company> companies;
+	private DevPairCombinations history;
+	private Map<Pair, Integer> pairsWeightMap;
+	private PairsWeightMatrix pairsWeight;
+	private DayPairsHelper pairsHelper;
+
+	@Setup
+	public void setUp() {
+		// generation logs every track on info level, which would dominate the measurement
+		((Logger) LoggerFactory.getLogger(DayPairsHelper.class)).setLevel(Level.WARN);
+		Random random = new Random(teamSize * 31 + historyDays);
+		companies = new ArrayList<>();
+		tracks = new ArrayList<>();
+		for (int i = 0; i < companiesCount; i++) {
+			Company company = new Company("company" + i);
+			companies.add(company);
+			tracks.add(company.getName() + "-track");
+		}
+		for (int i = tracks.size(); i < tracksCount; i++) {
+			tracks.add("track" + i);
+		}
+		devs = new ArrayList<>();
+		for (int i = 0; i < teamSize; i++) {
+			Developer developer = new Developer("dev" + i);
+			developer.setNew(i % 7 == 6);
+			if (companiesCount > 0) {
+				developer.setCompany(companies.get(i % companiesCount));
+			}
+			devs.add(developer);
+		}
+		List<DayPairs> pastPairs = new ArrayList<>();
+		for (int day = 1; day <= historyDays; day++) {
+			pastPairs.add(getRandomDayPairs(random, day));
+		}
+		history = new DevPairCombinations(pastPairs);
+		pairsHelper = new DayPairsHelper(null, false);
+		pairsWeightMap = pairsHelper.buildPairsWeightFromPastPairing(history, devs);
+		pairsWeight = PairsWeightMatrix.fromMap(devs, pairsWeightMap);
+	}
+
+	@Benchmark
+	public Map<Pair, Integer> buildPairsWeightFromPastPairing() {
+		return pairsHelper.buildPairsWeightFromPastPairing(history, devs);
+	}
+
+	@Benchmark
+	public Map<Pair, Integer> buildBuildPairsWeightFromPastPairing() {
+		return pairsHelper.buildBuildPairsWeightFromPastPairing(history, devs);
+	}
+
+	@Benchmark
+	public Map<Pair, Integer> buildCommunityPairsWeightFromPastPairing() {
+		return pairsHelper.buildCommunityPairsWeightFromPastPairing(history, devs);
+	}
+
+	@Benchmark
+	public List<Developer> buildDevelopersTracksWeightFromPastPairing() {
+		pairsHelper.buildDevelopersTracksWeightFromPastPairing(history, devs);
+		return devs;
+	}
+
+	@Benchmark
+	public PairsWeightMatrix adaptPairsWeight() {
+		PairsWeightMatrix result = pairsWeight.subMatrix(devs);
+		pairsHelper.adaptPairsWeight(result);
+		return result;
+	}
+
+	@Benchmark
+	public DayPairs generateNewDayPairs() {
+		return pairsHelper.generateNewDayPairs(tracks, devs, history, pairsWeight, companies);
+	}
+
+	private DayPairs getRandomDayPairs(Random random, int daysBack) {
+		DayPairs result = new DayPairs();
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, -daysBack);
+		result.setDate(calendar.getTime());
+		List<Developer> shuffledDevs = new ArrayList<>(devs);
+		Collections.shuffle(shuffledDevs, random);
+		for (int i = 0; i + 1 < shuffledDevs.size() && i / 2 < tracks.size(); i += 2) {
+			String track = tracks.get(i / 2);
+			Pair pair = new Pair(Arrays.asList(shuffledDevs.get(i), shuffledDevs.get(i + 1)), false, track);
+			pair.setBuildPair(i == 0);
+			pair.setCommunityPair(i == 2);
+			result.addPair(track, pair);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,148 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import pair.distribution.app.helpers.DayPairsHelper;
+import pair.distribution.app.helpers.DayPairsHelper.PairingEngine;
+import pair.distribution.app.helpers.DecayedPairingHistory;
+import pair.distribution.app.helpers.PairingHistory;
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * A dev pairs forecast as the forecast endpoint runs it: an in memory copy of the board weights, then every
+ * simulated day generated from the copy and added to it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForecastBenchmark {
+
+	@Param({ "50" })
+	private int teamSize;
+
+	@Param({ "60" })
+	private int forecastDays;
+
+	@Param({ "365" })
+	private int historyDays;
+
+	@Param({ "0", "14" })
+	private double halfLifeDays;
+
+	private List<String> tracks;
+	private List<Developer> devs;
+	private List<DayPairs> pastPairs;
+	private PairsWeightIndex boardWeights;
+
+	@Setup
+	public void setUp() {
+		// generation and rotation log on info level for every track, which would dominate the measurement
+		((Logger) LoggerFactory.getLogger("pair.distribution.app")).setLevel(Level.WARN);
+		Random random = new Random(teamSize);
+		devs = new ArrayList<>();
+		tracks = new ArrayList<>();
+		for (int i = 0; i < teamSize; i++) {
+			devs.add(new Developer("dev" + i));
+			if (i % 2 == 0) {
+				tracks.add("track" + i / 2);
+			}
+		}
+		boardWeights = PairsWeightIndex.inMemory(createHistory(), createHistory());
+		pastPairs = new ArrayList<>();
+		for (int day = historyDays; day > 0; day--) {
+			DayPairs dayPairs = getRandomDayPairs(random, getDate(-day));
+			boardWeights.addDay(dayPairs);
+			if (day <= DayPairsHelper.ROTATION_HISTORY_DAYS) {
+				pastPairs.add(dayPairs);
+			}
+		}
+	}
+
+	@Benchmark
+	public int forecast() {
+		PairsWeightIndex forecastWeights = boardWeights.inMemoryCopy();
+		DayPairsHelper pairsHelper = new DayPairsHelper(null, false, forecastWeights, PairingEngine.GREEDY);
+		DevPairCombinations pairCombination = new DevPairCombinations(new ArrayList<>(pastPairs));
+		int pairs = 0;
+		for (int daysIntoFuture = 0; daysIntoFuture < forecastDays; daysIntoFuture++) {
+			List<Developer> todayDevs = copyDevelopers();
+			PairsWeightMatrix pairsWeight = forecastWeights.getPairsWeight(todayDevs, false, PairWeightType.COMPLETE);
+			forecastWeights.applyDevelopersHistory(todayDevs, false);
+			pairsHelper.adaptPairsWeight(pairsWeight);
+			DayPairs dayPairs = pairsHelper.generateNewDayPairs(tracks, todayDevs, pairCombination, pairsWeight, Collections.<Company>emptyList());
+			pairsHelper.setBuildPair(dayPairs.getPairs().values(), forecastWeights.getPairsWeight(todayDevs, false, PairWeightType.BUILD));
+			pairsHelper.setCommunityPair(dayPairs.getPairs().values(), forecastWeights.getPairsWeight(todayDevs, false, PairWeightType.COMMUNITY));
+			dayPairs.setDate(getDate(daysIntoFuture));
+			pairCombination.addNewestDay(dayPairs);
+			forecastWeights.addDay(dayPairs);
+			pairs += dayPairs.getPairs().size();
+		}
+		return pairs;
+	}
+
+	private PairingHistory createHistory() {
+		return halfLifeDays > 0 ? new DecayedPairingHistory(halfLifeDays, 0) : new PairingHistoryStats();
+	}
+
+	private List<Developer> copyDevelopers() {
+		List<Developer> result = new ArrayList<>();
+		for (Developer developer : devs) {
+			result.add(new Developer(developer.getId()));
+		}
+		return result;
+	}
+
+	private DayPairs getRandomDayPairs(Random random, Date date) {
+		DayPairs result = new DayPairs();
+		result.setDate(date);
+		List<Developer> shuffledDevs = new ArrayList<>(devs);
+		Collections.shuffle(shuffledDevs, random);
+		for (int i = 0; i + 1 < shuffledDevs.size(); i += 2) {
+			String track = tracks.get(i / 2);
+			Pair pair = new Pair(Arrays.asList(shuffledDevs.get(i), shuffledDevs.get(i + 1)), false, track);
+			pair.setBuildPair(i == 0);
+			result.addPair(track, pair);
+		}
+		return result;
+	}
+
+	private Date getDate(int days) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DATE, days);
+		return calendar.getTime();
+	}
+}
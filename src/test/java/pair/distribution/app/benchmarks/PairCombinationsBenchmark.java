@@ -0,0 +1,168 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.OpsPairCombinations;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * History access and entity operations which the pair generation calls for every track: past pairs by track,
+ * the rotation checks, Pair equality and hashing, and the reverse lookup of a pair's track. Baseline for
+ * changes of the underlying data structures.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PairCombinationsBenchmark {
+
+	private static final int TEAM_SIZE = 30;
+
+	@Param({ "30", "365", "1000" })
+	private int historyDays;
+
+	private List<String> tracks;
+	private List<Developer> devs;
+	private DevPairCombinations devHistory;
+	private OpsPairCombinations opsHistory;
+	private OpsPairCombinations weeklyOpsHistory;
+	private DayPairs lastDayPairs;
+	private List<Pair> lastDayPairsCopies;
+
+	@Setup
+	public void setUp() {
+		// the rotation check logs every track on info level, which would dominate the measurement
+		((Logger) LoggerFactory.getLogger(DevPairCombinations.class)).setLevel(Level.WARN);
+		Random random = new Random(historyDays);
+		devs = new ArrayList<>();
+		tracks = new ArrayList<>();
+		for (int i = 0; i < TEAM_SIZE; i++) {
+			devs.add(new Developer("dev" + i));
+			if (i % 2 == 0) {
+				tracks.add("track" + i);
+			}
+		}
+		Company company = new Company("company");
+		company.setDevOpsRotationStrategy("weekly");
+		List<DayPairs> devPairs = new ArrayList<>();
+		List<DayPairs> opsPairs = new ArrayList<>();
+		for (int day = 1; day <= historyDays; day++) {
+			devPairs.add(getRandomDayPairs(random, day, false));
+			opsPairs.add(getRandomDayPairs(random, day, true));
+		}
+		devHistory = new DevPairCombinations(devPairs);
+		opsHistory = new OpsPairCombinations(opsPairs);
+		weeklyOpsHistory = opsHistory.forCompany(company);
+		lastDayPairs = devPairs.get(0);
+		lastDayPairsCopies = new ArrayList<>();
+		lastDayPairs.getPairs().values().stream().forEach(pair -> lastDayPairsCopies.add(new Pair(new ArrayList<>(pair.getDevs()))));
+	}
+
+	@Benchmark
+	public int getPastPairByTrack() {
+		int result = 0;
+		for (int daysBack = 0; daysBack < 3; daysBack++) {
+			for (String track : tracks) {
+				Pair pair = devHistory.getPastPairByTrack(daysBack, track);
+				result += pair == null ? 0 : pair.getDevs().size();
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public boolean isRotationTime() {
+		return devHistory.isRotationTime(tracks, devs, false);
+	}
+
+	@Benchmark
+	public boolean isOpsRotationTime() {
+		return opsHistory.isRotationTime(tracks, devs, false);
+	}
+
+	@Benchmark
+	public boolean isWeeklyOpsRotationTime() {
+		return weeklyOpsHistory.isRotationTime(tracks, devs, false);
+	}
+
+	@Benchmark
+	public int pairHashCode() {
+		int result = 0;
+		for (Pair pair : lastDayPairsCopies) {
+			result += pair.hashCode();
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int pairEquals() {
+		int result = 0;
+		for (Pair pair : lastDayPairs.getPairs().values()) {
+			for (Pair copy : lastDayPairsCopies) {
+				result += pair.equals(copy) ? 1 : 0;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int getDevs() {
+		int result = 0;
+		for (Pair pair : lastDayPairsCopies) {
+			result += pair.getDevs().size();
+		}
+		return result;
+	}
+
+	@Benchmark
+	public int getTrackByPair() {
+		int result = 0;
+		for (Pair pair : lastDayPairsCopies) {
+			String track = lastDayPairs.getTrackByPair(pair);
+			result += track == null ? 0 : track.length();
+		}
+		return result;
+	}
+
+	private DayPairs getRandomDayPairs(Random random, int daysBack, boolean opsPairs) {
+		DayPairs result = new DayPairs();
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, -daysBack);
+		result.setDate(calendar.getTime());
+		List<Developer> shuffledDevs = new ArrayList<>(devs);
+		Collections.shuffle(shuffledDevs, random);
+		for (int i = 0; i + 1 < shuffledDevs.size(); i += 2) {
+			String track = tracks.get(i / 2);
+			result.addPair(track, new Pair(Arrays.asList(shuffledDevs.get(i), shuffledDevs.get(i + 1)), opsPairs, track));
+		}
+		return result;
+	}
+}
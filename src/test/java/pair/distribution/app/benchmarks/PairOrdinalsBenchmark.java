@@ -0,0 +1,77 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pair.distribution.app.helpers.DayPairsHelper;
+import pair.distribution.app.helpers.PairOrdinals;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Pair combination generation for different team sizes: the ordinal cursor, the matrix built on top of it
+ * and the Map&lt;Pair, Integer&gt; path which still creates one Pair per combination.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PairOrdinalsBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int teamSize;
+
+	private List<Developer> devs;
+	private PairsWeightMatrix historyWeights;
+	private DayPairsHelper pairsHelper;
+	private DevPairCombinations emptyHistory;
+
+	@Setup
+	public void setUp() {
+		devs = new ArrayList<>();
+		for (int i = 0; i < teamSize; i++) {
+			devs.add(new Developer("dev" + i));
+		}
+		historyWeights = new PairsWeightMatrix(devs);
+		pairsHelper = new DayPairsHelper(null, false);
+		emptyHistory = new DevPairCombinations(new ArrayList<>());
+	}
+
+	@Benchmark
+	public long enumeratePairOrdinals() {
+		long result = 0;
+		PairOrdinals pairOrdinals = new PairOrdinals(teamSize);
+		while (pairOrdinals.next()) {
+			result += pairOrdinals.first() ^ pairOrdinals.second();
+		}
+		return result;
+	}
+
+	@Benchmark
+	public PairsWeightMatrix pairsWeightMatrix() {
+		return historyWeights.subMatrix(devs);
+	}
+
+	@Benchmark
+	public Map<Pair, Integer> pairsWeightMap() {
+		return pairsHelper.buildPairsWeightFromPastPairing(emptyHistory, devs);
+	}
+}
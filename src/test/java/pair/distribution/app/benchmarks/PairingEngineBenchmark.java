@@ -0,0 +1,89 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import pair.distribution.app.helpers.DayPairsHelper;
+import pair.distribution.app.helpers.DayPairsHelper.PairingEngine;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+
+/**
+ * Latency of the greedy track filler against the minimum weight matching on random pair weights.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PairingEngineBenchmark {
+
+	@Param({ "10", "30", "100" })
+	private int teamSize;
+
+	private List<String> tracks;
+	private List<Developer> devs;
+	private PairsWeightMatrix pairsWeight;
+	private DevPairCombinations emptyHistory;
+	private DayPairsHelper greedyHelper;
+	private DayPairsHelper matchingHelper;
+
+	@Setup
+	public void setUp() {
+		// generation logs every track on info level, which would dominate the measurement
+		((Logger) LoggerFactory.getLogger(DayPairsHelper.class)).setLevel(Level.WARN);
+		Random random = new Random(teamSize);
+		devs = new ArrayList<>();
+		tracks = new ArrayList<>();
+		for (int i = 0; i < teamSize; i++) {
+			Developer developer = new Developer("dev" + i);
+			developer.setPairingDays(20 + random.nextInt(40));
+			devs.add(developer);
+			if (i % 2 == 0) {
+				tracks.add("track" + i);
+			}
+		}
+		pairsWeight = new PairsWeightMatrix(devs);
+		for (int second = 1; second < teamSize; second++) {
+			for (int first = 0; first < second; first++) {
+				pairsWeight.setWeight(first, second, random.nextInt(50));
+			}
+		}
+		emptyHistory = new DevPairCombinations(new ArrayList<>());
+		greedyHelper = new DayPairsHelper(null, false, null, PairingEngine.GREEDY);
+		matchingHelper = new DayPairsHelper(null, false, null, PairingEngine.MATCHING);
+	}
+
+	@Benchmark
+	public DayPairs greedy() {
+		return greedyHelper.generateNewDayPairs(tracks, devs, emptyHistory, pairsWeight, Collections.<Company>emptyList());
+	}
+
+	@Benchmark
+	public DayPairs matching() {
+		return matchingHelper.generateNewDayPairs(tracks, devs, emptyHistory, pairsWeight, Collections.<Company>emptyList());
+	}
+}
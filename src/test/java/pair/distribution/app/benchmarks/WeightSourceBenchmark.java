@@ -0,0 +1,135 @@
+package pair.distribution.app.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.MongoClientURI;
+
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.persistence.mongodb.AggregationPairsWeightSource;
+import pair.distribution.app.persistence.mongodb.MongoConfiguration;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+/**
+ * Reading the dev pair weights and developer history of a board from a local Mongo: loading every day and
+ * counting in the JVM, as the pairs weight index does when it loads, against the counting aggregation of
+ * {@link AggregationPairsWeightSource}. Needs a running Mongo, mongoUri selects it; the benchmark database
+ * is dropped afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeightSourceBenchmark {
+
+	private static final String BOARD_ID = "benchmark-board";
+
+	@Param({ "mongodb://localhost:27017/pair-distribution-benchmark" })
+	private String mongoUri;
+
+	@Param({ "30" })
+	private int teamSize;
+
+	@Param({ "365", "1000" })
+	private int historyDays;
+
+	private SimpleMongoDbFactory mongoDbFactory;
+	private MongoTemplate mongoTemplate;
+	private AggregationPairsWeightSource aggregationSource;
+	private List<Developer> devs;
+
+	@Setup
+	public void setUp() {
+		mongoDbFactory = new SimpleMongoDbFactory(new MongoClientURI(mongoUri));
+		MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(mongoDbFactory), new MongoMappingContext());
+		converter.setCustomConversions(new MongoConfiguration().customConversions());
+		converter.afterPropertiesSet();
+		mongoTemplate = new MongoTemplate(mongoDbFactory, converter);
+		mongoTemplate.dropCollection(DayPairs.class);
+		aggregationSource = new AggregationPairsWeightSource(mongoTemplate, BOARD_ID, 0);
+
+		Random random = new Random(historyDays);
+		devs = new ArrayList<>();
+		for (int i = 0; i < teamSize; i++) {
+			devs.add(new Developer("dev" + i));
+		}
+		List<DayPairs> days = new ArrayList<>();
+		for (int day = 1; day <= historyDays; day++) {
+			days.add(getRandomDayPairs(random, day));
+		}
+		mongoTemplate.insertAll(days);
+	}
+
+	@TearDown
+	public void tearDown() {
+		mongoTemplate.getDb().drop();
+	}
+
+	@Benchmark
+	public int inJvm() {
+		PairingHistoryStats stats = new PairingHistoryStats();
+		for (DayPairs dayPairs : mongoTemplate.find(Query.query(Criteria.where("boardId").is(BOARD_ID)), DayPairs.class)) {
+			dayPairs.getPairs().values().stream().filter(pair -> !pair.isOpsPair()).forEach(pair -> stats.addPair(pair, 1));
+		}
+		return readWeights(stats);
+	}
+
+	@Benchmark
+	public int aggregation() {
+		return readWeights(aggregationSource.aggregate(false));
+	}
+
+	private int readWeights(PairingHistoryStats stats) {
+		PairsWeightMatrix pairsWeight = stats.getPairsWeight(devs, PairWeightType.COMPLETE);
+		stats.applyTo(devs);
+		return pairsWeight.getWeight(0, 1) + devs.get(0).getPairingDays();
+	}
+
+	private DayPairs getRandomDayPairs(Random random, int daysBack) {
+		DayPairs result = new DayPairs();
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, -daysBack);
+		result.setDate(calendar.getTime());
+		result.setBoardId(BOARD_ID);
+		List<Developer> shuffledDevs = new ArrayList<>(devs);
+		Collections.shuffle(shuffledDevs, random);
+		for (int i = 0; i + 1 < shuffledDevs.size(); i += 2) {
+			String track = "track" + i / 2;
+			Pair pair = new Pair(Arrays.asList(shuffledDevs.get(i), shuffledDevs.get(i + 1)), false, track);
+			pair.setBuildPair(i == 0);
+			result.addPair(track, pair);
+		}
+		return result;
+	}
+}
@@ -7,9 +7,15 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
-import static org.mockito.Mockito.atLeast;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -22,7 +28,10 @@ import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
 
+import pair.distribution.app.helpers.DayPairsHelper.PairingEngine;
+import pair.distribution.app.persistence.mongodb.SyncReport;
 import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
 import pair.distribution.app.trello.entities.Company;
 import pair.distribution.app.trello.entities.DayPairs;
@@ -45,7 +54,9 @@ public class DayPairsHelperTest {
 	@Test(expected = RuntimeException.class)
 	public void testUpdateDataBaseWithTrelloContentWithException() {
 		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
-		when(trelloPairsRepository.findByDate(pairsList.get(2).getDate())).thenReturn(pairsList);
+		DayPairs duplicate = new DayPairs();
+		duplicate.setDate(pairsList.get(0).getDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(pairsList.get(0), duplicate));
 
 		subject.updateDataBaseWithTrelloContent(pairsList);
 	}
@@ -56,13 +67,151 @@ public class DayPairsHelperTest {
 		DayPairs oldPairs = new DayPairs();
 		oldPairs.setDate(pairsList.get(0).getDate());
 		oldPairs.addPair("oldTrack", new Pair());
-		when(trelloPairsRepository.findByDate(pairsList.get(0).getDate())).thenReturn(Arrays.asList(oldPairs));
-		when(trelloPairsRepository.findByDate(pairsList.get(1).getDate())).thenReturn(Arrays.asList());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs));
+		SyncReport report = new SyncReport(Arrays.asList(pairsList.get(1).getDate(), pairsList.get(2).getDate()), Arrays.asList(pairsList.get(0).getDate()), 0, 0);
+		when(trelloPairsRepository.syncDays(null, pairsList, getTodayDate())).thenReturn(report);
 
-		subject.updateDataBaseWithTrelloContent(pairsList);
+		assertThat(subject.updateDataBaseWithTrelloContent(pairsList), is(report));
+
+		verify(trelloPairsRepository).findByDateIn(Arrays.asList(getTodayDate(), pairsList.get(0).getDate(), pairsList.get(1).getDate(),
+				pairsList.get(2).getDate()));
+		verify(trelloPairsRepository, never()).save(any(DayPairs.class));
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentUpdatesPairsWeightIndex() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		DayPairs oldPairs = new DayPairs();
+		oldPairs.setDate(pairsList.get(0).getDate());
+		DayPairs oldToday = new DayPairs();
+		oldToday.setDate(getTodayDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs, oldToday));
+		when(trelloPairsRepository.syncDays(null, pairsList.subList(0, 2), getTodayDate()))
+				.thenReturn(new SyncReport(Arrays.asList(pairsList.get(1).getDate()), Arrays.asList(pairsList.get(0).getDate()), 0, 1));
+
+		new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).updateDataBaseWithTrelloContent(pairsList.subList(0, 2));
+
+		verify(pairsWeightIndex).removeDay(oldToday);
+		verify(pairsWeightIndex).replaceDay(oldPairs, pairsList.get(0));
+		verify(pairsWeightIndex).addDay(pairsList.get(1));
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentReplacesOnlyReplacedDays() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		DayPairs oldPairs = new DayPairs();
+		oldPairs.setDate(pairsList.get(0).getDate());
+		DayPairs unchangedPairs = new DayPairs();
+		unchangedPairs.setDate(pairsList.get(1).getDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs, unchangedPairs));
+		when(trelloPairsRepository.syncDays(null, pairsList.subList(0, 2), getTodayDate()))
+				.thenReturn(new SyncReport(new ArrayList<>(), Arrays.asList(pairsList.get(0).getDate()), 1, 0));
+
+		new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).updateDataBaseWithTrelloContent(pairsList.subList(0, 2));
+
+		verify(pairsWeightIndex).replaceDay(oldPairs, pairsList.get(0));
+		verify(pairsWeightIndex, never()).replaceDay(unchangedPairs, pairsList.get(1));
+		verify(pairsWeightIndex, never()).addDay(any(DayPairs.class));
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentSkipsUnchangedDays() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs()).subList(0, 1);
+		DayPairs oldPairs = new DayPairs();
+		oldPairs.setDate(pairsList.get(0).getDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs));
+		when(trelloPairsRepository.syncDays(null, pairsList, getTodayDate())).thenReturn(new SyncReport(new ArrayList<>(), new ArrayList<>(), 1, 0));
+
+		new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).updateDataBaseWithTrelloContent(pairsList);
+
+		verifyZeroInteractions(pairsWeightIndex);
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentReplacesTodayOnBoard() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		DayPairs boardToday = new DayPairs();
+		boardToday.setDate(getTodayDate());
+		DayPairs oldToday = new DayPairs();
+		oldToday.setDate(getTodayDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldToday));
+		when(trelloPairsRepository.syncDays(null, Arrays.asList(boardToday), getTodayDate()))
+				.thenReturn(new SyncReport(new ArrayList<>(), Arrays.asList(getTodayDate()), 0, 0));
+
+		new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).updateDataBaseWithTrelloContent(Arrays.asList(boardToday));
+
+		verify(pairsWeightIndex).replaceDay(oldToday, boardToday);
+		verify(pairsWeightIndex, never()).removeDay(any(DayPairs.class));
+		verify(pairsWeightIndex, never()).addDay(any(DayPairs.class));
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentKeepsPairsWeightIndexWhenWriteFails() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.syncDays(null, pairsList, getTodayDate())).thenThrow(new DataAccessResourceFailureException("write failed"));
+
+		try {
+			new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).updateDataBaseWithTrelloContent(pairsList);
+			fail();
+		} catch (DataAccessResourceFailureException e) {
+			verifyZeroInteractions(pairsWeightIndex);
+		}
+	}
+
+	@Test
+	public void testUpdateDataBaseWithTrelloContentForBoard() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		DayPairs oldPairs = new DayPairs();
+		oldPairs.setDate(pairsList.get(0).getDate());
+		when(trelloPairsRepository.findByBoardIdAndDateIn(eq("board1"), anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs));
+		DayPairsHelper boardSubject = new DayPairsHelper(trelloPairsRepository, "board1", false, null, PairingEngine.GREEDY);
+
+		boardSubject.updateDataBaseWithTrelloContent(pairsList.subList(0, 2));
+
+		verify(trelloPairsRepository).syncDays("board1", pairsList.subList(0, 2), getTodayDate());
+		verify(trelloPairsRepository, never()).findByDateIn(anyCollectionOf(Date.class));
+		assertThat(pairsList.get(0).getBoardId(), is("board1"));
+		assertThat(pairsList.get(1).getBoardId(), is("board1"));
+	}
+
+	@Test
+	public void testMergeWeightsWithTrelloContent() {
+		PairsWeightIndex pairsWeightIndex = mock(PairsWeightIndex.class);
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		DayPairs oldPairs = new DayPairs();
+		oldPairs.setDate(pairsList.get(0).getDate());
+		DayPairs oldToday = new DayPairs();
+		oldToday.setDate(getTodayDate());
+		when(trelloPairsRepository.findByDateIn(anyCollectionOf(Date.class))).thenReturn(Arrays.asList(oldPairs, oldToday));
 
-		verify(trelloPairsRepository, atLeast(1)).save(pairsList.get(0));
-		verify(trelloPairsRepository, atLeast(1)).save(pairsList.get(1));
+		new DayPairsHelper(trelloPairsRepository, false, pairsWeightIndex).mergeWeightsWithTrelloContent(pairsList.subList(0, 2));
+
+		verify(trelloPairsRepository, never()).syncDays(any(String.class), anyListOf(DayPairs.class), any(Date.class));
+		verify(pairsWeightIndex).removeDay(oldToday);
+		verify(pairsWeightIndex).replaceDay(oldPairs, pairsList.get(0));
+		verify(pairsWeightIndex).addDay(pairsList.get(1));
+	}
+
+	@Test
+	public void testMergeWithTrelloContent() {
+		List<DayPairs> storedPairs = getPairsListFromDevs(getStandardDevs());
+		DayPairs today = new DayPairs();
+		today.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev4"))));
+		DayPairs boardDay = new DayPairs();
+		boardDay.setDate(storedPairs.get(0).getDate());
+		boardDay.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev3"))));
+		List<DayPairs> allStoredPairs = new ArrayList<>(storedPairs);
+		allStoredPairs.add(today);
+
+		List<DayPairs> result = subject.mergeWithTrelloContent(allStoredPairs, Arrays.asList(boardDay));
+
+		assertThat(result.size(), is(storedPairs.size()));
+		assertThat(result.contains(today), is(false));
+		assertThat(result.get(result.indexOf(boardDay)).getPairByTrack("track1"), is(boardDay.getPairByTrack("track1")));
 	}
 
 	@Test
@@ -103,6 +252,18 @@ public class DayPairsHelperTest {
 		assertThat(pairsWeight.get(new Pair(Arrays.asList(new Developer("dev3"), new Developer("dev4")))), is(2));
 	}
 
+	@Test
+	public void testAdaptScaledPairsWeightForNewDevelopers() {
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"));
+		devs.stream().forEach(developer -> developer.setNew(true));
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs, 100);
+		pairsWeight.setWeight(0, 1, 37);
+
+		subject.adaptPairsWeight(pairsWeight);
+
+		assertThat(pairsWeight.getWeight(0, 1), is(10037));
+	}
+
 	@Test
 	public void testGenerateNewDayPairs() {
 		PairCombinations pairs = getPairsList();
@@ -169,6 +330,88 @@ public class DayPairsHelperTest {
 		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev5"), new Developer("dev4")))), is(true));
 	}
 
+	@Test
+	public void testGenerateNewDayPairsWithMatchingEngine() {
+		DevPairCombinations pairs = new DevPairCombinations(new ArrayList<>());
+		List<Developer> devs = getStandardDevs();
+		List<String> tracks = Arrays.asList("track1", "track2");
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs);
+		pairsWeight.setWeight(0, 1, 0);
+		pairsWeight.setWeight(2, 3, 10);
+		pairsWeight.setWeight(0, 2, 1);
+		pairsWeight.setWeight(1, 3, 1);
+		pairsWeight.setWeight(0, 3, 5);
+		pairsWeight.setWeight(1, 2, 5);
+		devs.stream().forEach(developer -> developer.setPairingDays(10));
+		DayPairsHelper subjectWithMatching = new DayPairsHelper(trelloPairsRepository, false, null, PairingEngine.MATCHING);
+
+		DayPairs greedyDayPairs = subject.generateNewDayPairs(tracks, devs, pairs, pairsWeight, getStandardCompanies());
+		DayPairs dayPairs = subjectWithMatching.generateNewDayPairs(tracks, devs, pairs, pairsWeight, getStandardCompanies());
+
+		assertThat(greedyDayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")))), is(true));
+		assertThat(dayPairs.getTracks(), containsInAnyOrder("track1", "track2"));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev3")))), is(true));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev2"), new Developer("dev4")))), is(true));
+	}
+
+	@Test
+	public void testGenerateNewDayPairsWithMatchingEngineUsesPartnerScores() {
+		DevPairCombinations pairs = new DevPairCombinations(new ArrayList<>());
+		List<Developer> devs = getStandardDevs();
+		List<String> tracks = Arrays.asList("track1", "track2");
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs);
+		pairsWeight.setWeight(0, 1, 10);
+		pairsWeight.setWeight(2, 3, 0);
+		pairsWeight.setWeight(0, 2, 3);
+		pairsWeight.setWeight(1, 3, 3);
+		pairsWeight.setWeight(0, 3, 20);
+		pairsWeight.setWeight(1, 2, 20);
+		// dev1 and dev2 paired on many more days, so their weight counts less than the raw weights suggest
+		devs.get(0).setPairingDays(30);
+		devs.get(1).setPairingDays(30);
+		devs.get(2).setPairingDays(2);
+		devs.get(3).setPairingDays(2);
+		DayPairsHelper subjectWithMatching = new DayPairsHelper(trelloPairsRepository, false, null, PairingEngine.MATCHING);
+
+		DayPairs dayPairs = subjectWithMatching.generateNewDayPairs(tracks, devs, pairs, pairsWeight, getStandardCompanies());
+
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")))), is(true));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev3"), new Developer("dev4")))), is(true));
+	}
+
+	@Test
+	public void testGenerateNewDayPairsWithMatchingEngineKeepsSoloTrack() {
+		DevPairCombinations pairs = new DevPairCombinations(new ArrayList<>());
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"));
+		List<String> tracks = Arrays.asList("track1", "track2", "track3");
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs);
+		DayPairsHelper subjectWithMatching = new DayPairsHelper(trelloPairsRepository, false, null, PairingEngine.MATCHING);
+
+		DayPairs dayPairs = subjectWithMatching.generateNewDayPairs(tracks, devs, pairs, pairsWeight, getStandardCompanies());
+
+		assertThat(dayPairs.getTracks(), containsInAnyOrder("track1", "track2"));
+		assertThat(dayPairs.getPairByTrack("track1").isComplete(), is(true));
+		assertThat(dayPairs.getPairByTrack("track2").isSolo(), is(true));
+	}
+
+	@Test
+	public void testGenerateNewDayPairsWithMatchingEngineKeepsRotation() {
+		PairCombinations pairs = getLongPairsList();
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"),
+				new Developer("dev4"), new Developer("dev5"), new Developer("dev6"));
+		List<String> tracks = Arrays.asList("track1", "track2", "track3");
+		Map<Pair, Integer> pairsWeight = subject.buildPairsWeightFromPastPairing(pairs, devs);
+		subject.buildDevelopersPairingDays(pairs, devs);
+		DayPairsHelper subjectWithMatching = new DayPairsHelper(trelloPairsRepository, false, null, PairingEngine.MATCHING);
+
+		DayPairs dayPairs = subjectWithMatching.generateNewDayPairs(tracks, devs, pairs, pairsWeight, getStandardCompanies());
+
+		assertThat(dayPairs.getTracks(), containsInAnyOrder("track1", "track2", "track3"));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev6")))), is(true));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev3"), new Developer("dev2")))), is(true));
+		assertThat(dayPairs.hasPair(new Pair(Arrays.asList(new Developer("dev5"), new Developer("dev4")))), is(true));
+	}
+
 	@Test
 	public void testGenerateNewDayPairsSoloRequired() {
 		PairCombinations pairs = getPairsList();
@@ -187,7 +430,6 @@ public class DayPairsHelperTest {
 	@Test
 	public void testGenerateNewDayPairsNoOldDevAvailable() {
 		PairCombinations pairs = getPairsList();
-		pairs.getPairs().remove(2);
 		List<Developer> devs = Arrays.asList(new Developer("dev5"), new Developer("dev6"));
 		List<String> tracks = Arrays.asList("track1", "track2", "track3");
 		Map<Pair, Integer> pairsWeight = subject.buildPairsWeightFromPastPairing(pairs, devs);
@@ -784,4 +1026,13 @@ public class DayPairsHelperTest {
 		cal.add(Calendar.DATE, -(daysCountToPast));
 		return cal.getTime();
 	}
+
+	private Date getTodayDate() {
+		Calendar today = Calendar.getInstance();
+		today.set(Calendar.HOUR_OF_DAY, 0);
+		today.clear(Calendar.MINUTE);
+		today.clear(Calendar.SECOND);
+		today.clear(Calendar.MILLISECOND);
+		return today.getTime();
+	}
 }
@@ -0,0 +1,144 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class DecayedPairingHistoryTest {
+
+	@Test
+	public void testOlderDaysCountLess() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(2, 0);
+
+		subject.addDay(getPastDate(4), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(2), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		assertThat(subject.getPairWeight(new Developer("dev1"), new Developer("dev2"), PairWeightType.COMPLETE), is(closeTo(1.75, 0.0001)));
+	}
+
+	@Test
+	public void testDaysAddedOutOfOrder() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(2, 0);
+
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(4), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(2), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		assertThat(subject.getPairWeight(new Developer("dev1"), new Developer("dev2"), PairWeightType.COMPLETE), is(closeTo(1.75, 0.0001)));
+	}
+
+	@Test
+	public void testDaysOutsideWindowAreDropped() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(0, 3);
+
+		subject.addDay(getPastDate(5), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(3), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1"), getPair("dev3", "dev4", "track2")));
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev3", "track1")));
+		subject.addDay(getPastDate(10), Arrays.asList(getPair("dev3", "dev4", "track1")));
+
+		PairsWeightMatrix pairsWeight = subject.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE);
+		assertThat(subject.getDaysCount(), is(2));
+		assertThat(pairsWeight.getScale(), is(100));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2", "track1")), is(100));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3", "track1")), is(100));
+		assertThat(pairsWeight.getWeight(getPair("dev3", "dev4", "track1")), is(100));
+	}
+
+	@Test
+	public void testRemoveDay() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(1, 0);
+		subject.addDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		subject.removeDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		assertThat(subject.getPairWeight(new Developer("dev1"), new Developer("dev2"), PairWeightType.COMPLETE), is(closeTo(1, 0.0001)));
+		assertThat(subject.getDaysCount(), is(1));
+	}
+
+	@Test
+	public void testRemoveOnePairOfDay() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(0, 0);
+		Pair buildPair = getPair("dev3", "dev4", "track2");
+		buildPair.setBuildPair(true);
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev2", "track1"), buildPair));
+
+		subject.removeDay(getPastDate(0), Arrays.asList(getPair("dev2", "dev1", "track1"), getPair("dev1", "dev5", "track1")));
+
+		assertThat(subject.getPairWeight(new Developer("dev1"), new Developer("dev2"), PairWeightType.COMPLETE), is(closeTo(0, 0.0001)));
+		assertThat(subject.getPairWeight(new Developer("dev3"), new Developer("dev4"), PairWeightType.BUILD), is(closeTo(1, 0.0001)));
+		assertThat(subject.getDaysCount(), is(1));
+	}
+
+	@Test
+	public void testOldPairingKeepsWeight() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(7, 0);
+		subject.addDay(getPastDate(10), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev3", "dev4", "track1")));
+
+		PairsWeightMatrix pairsWeight = subject.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE);
+
+		// 0.5 ^ (10 / 7) of a pairing
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2", "track1")), is(37));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3", "track1")), is(0));
+	}
+
+	@Test
+	public void testApplyTo() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(1, 0);
+		subject.addDay(getPastDate(2), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1")));
+		subject.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev3", "track2")));
+		List<Developer> devs = getStandardDevs();
+
+		subject.applyTo(devs);
+
+		assertThat(devs.get(0).getPairingDays(), is(175));
+		assertThat(devs.get(0).getTrackWeight("track1"), is(75));
+		assertThat(devs.get(0).getTrackWeight("track2"), is(100));
+		assertThat(devs.get(3).getPairingDays(), is(0));
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		DecayedPairingHistory subject = new DecayedPairingHistory(1, 0);
+		subject.addDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		DecayedPairingHistory copy = subject.copy();
+		copy.addDay(getPastDate(0), Arrays.asList(getPair("dev1", "dev3", "track1")));
+		subject.removeDay(getPastDate(1), Arrays.asList(getPair("dev1", "dev2", "track1")));
+
+		assertThat(copy.getPairWeight(new Developer("dev1"), new Developer("dev2"), PairWeightType.COMPLETE), is(closeTo(0.5, 0.0001)));
+		assertThat(copy.getPairWeight(new Developer("dev1"), new Developer("dev3"), PairWeightType.COMPLETE), is(closeTo(1, 0.0001)));
+		assertThat(subject.getPairWeight(new Developer("dev1"), new Developer("dev3"), PairWeightType.COMPLETE), is(closeTo(0, 0.0001)));
+		assertThat(subject.getDaysCount(), is(0));
+	}
+
+	private Pair getPair(String firstDevId, String secondDevId, String track) {
+		return new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId)), false, track);
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+
+	private Date getPastDate(int daysCountToPast) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(new Date());
+		cal.add(Calendar.DATE, -(daysCountToPast));
+		return cal.getTime();
+	}
+}
@@ -0,0 +1,122 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MinWeightMatchingTest {
+
+	@Test
+	public void testPrefersSmallestTotalWeight() {
+		MinWeightMatching subject = new MinWeightMatching(4);
+		subject.addEdge(0, 1, 0);
+		subject.addEdge(2, 3, 10);
+		subject.addEdge(0, 2, 1);
+		subject.addEdge(1, 3, 1);
+
+		int[] mates = subject.solve();
+
+		assertThat(mates[0], is(2));
+		assertThat(mates[1], is(3));
+	}
+
+	@Test
+	public void testMaximumCardinalityBeforeWeight() {
+		MinWeightMatching subject = new MinWeightMatching(4);
+		subject.addEdge(0, 1, 0);
+		subject.addEdge(0, 2, 50);
+		subject.addEdge(1, 3, 50);
+
+		int[] mates = subject.solve();
+
+		assertThat(mates[0], is(2));
+		assertThat(mates[1], is(3));
+	}
+
+	@Test
+	public void testOddVertexCountLeavesOneUnmatched() {
+		MinWeightMatching subject = new MinWeightMatching(3);
+		subject.addEdge(0, 1, 5);
+		subject.addEdge(0, 2, 1);
+		subject.addEdge(1, 2, 5);
+
+		int[] mates = subject.solve();
+
+		assertThat(mates[0], is(2));
+		assertThat(mates[1], is(-1));
+	}
+
+	@Test
+	public void testMatchesBruteForceOnRandomGraphs() {
+		Random random = new Random(42);
+		for (int round = 0; round < 300; round++) {
+			int vertexCount = 2 + random.nextInt(9);
+			int[][] costs = new int[vertexCount][vertexCount];
+			MinWeightMatching subject = new MinWeightMatching(vertexCount);
+			for (int i = 0; i < vertexCount; i++) {
+				for (int j = i + 1; j < vertexCount; j++) {
+					costs[i][j] = costs[j][i] = random.nextInt(4) == 0 ? -1 : random.nextInt(20);
+					if (costs[i][j] >= 0) {
+						subject.addEdge(i, j, costs[i][j]);
+					}
+				}
+			}
+
+			int[] mates = subject.solve();
+
+			long[] best = bruteForce(costs, new boolean[vertexCount], 0);
+			assertThat(getCardinality(mates), is(best[0]));
+			assertThat(getTotalCost(mates, costs), is(best[1]));
+		}
+	}
+
+	private long getCardinality(int[] mates) {
+		long result = 0;
+		for (int v = 0; v < mates.length; v++) {
+			if (mates[v] > v) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private long getTotalCost(int[] mates, int[][] costs) {
+		long result = 0;
+		for (int v = 0; v < mates.length; v++) {
+			if (mates[v] > v) {
+				assertThat(mates[mates[v]], is(v));
+				assertThat(costs[v][mates[v]] >= 0, is(true));
+				result += costs[v][mates[v]];
+			}
+		}
+		return result;
+	}
+
+	// {cardinality, cost} of the best matching of the vertices from index onwards
+	private long[] bruteForce(int[][] costs, boolean[] used, int index) {
+		while (index < used.length && used[index]) {
+			index++;
+		}
+		if (index == used.length) {
+			return new long[] { 0, 0 };
+		}
+		used[index] = true;
+		long[] best = bruteForce(costs, used, index + 1);
+		for (int other = index + 1; other < used.length; other++) {
+			if (!used[other] && costs[index][other] >= 0) {
+				used[other] = true;
+				long[] candidate = bruteForce(costs, used, index + 1);
+				candidate = new long[] { candidate[0] + 1, candidate[1] + costs[index][other] };
+				if (candidate[0] > best[0] || (candidate[0] == best[0] && candidate[1] < best[1])) {
+					best = candidate;
+				}
+				used[other] = false;
+			}
+		}
+		used[index] = false;
+		return best;
+	}
+}
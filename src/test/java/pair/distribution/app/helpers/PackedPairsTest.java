@@ -0,0 +1,74 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PackedPairsTest {
+
+	@Test
+	public void testPack() {
+		long packedPair = PackedPairs.pack(7, 3, 2, PackedPairs.BUILD | PackedPairs.LOCKED);
+
+		assertThat(PackedPairs.firstOf(packedPair), is(3));
+		assertThat(PackedPairs.secondOf(packedPair), is(7));
+		assertThat(PackedPairs.trackOf(packedPair), is(2));
+		assertThat(PackedPairs.isComplete(packedPair), is(true));
+		assertThat(PackedPairs.hasFlag(packedPair, PackedPairs.BUILD), is(true));
+		assertThat(PackedPairs.hasFlag(packedPair, PackedPairs.LOCKED), is(true));
+		assertThat(PackedPairs.hasFlag(packedPair, PackedPairs.COMMUNITY), is(false));
+	}
+
+	@Test
+	public void testPackSoloPair() {
+		long packedPair = PackedPairs.pack(-1, 5, -1, 0);
+
+		assertThat(PackedPairs.firstOf(packedPair), is(5));
+		assertThat(PackedPairs.secondOf(packedPair), is(-1));
+		assertThat(PackedPairs.trackOf(packedPair), is(-1));
+		assertThat(PackedPairs.isComplete(packedPair), is(false));
+	}
+
+	@Test
+	public void testPackLimits() {
+		long packedPair = PackedPairs.pack(PackedPairs.MAX_DEVELOPER_ORDINAL, 0, PackedPairs.MAX_TRACK_ORDINAL, 0xFF);
+
+		assertThat(PackedPairs.firstOf(packedPair), is(0));
+		assertThat(PackedPairs.secondOf(packedPair), is(PackedPairs.MAX_DEVELOPER_ORDINAL));
+		assertThat(PackedPairs.trackOf(packedPair), is(PackedPairs.MAX_TRACK_ORDINAL));
+		assertThat(PackedPairs.flagsOf(packedPair), is(0xFF));
+	}
+
+	@Test
+	public void testDevsIgnoreTrackAndFlags() {
+		long packedPair = PackedPairs.pack(1, 2, 0, PackedPairs.OPS);
+
+		assertThat(PackedPairs.devsOf(packedPair), is(PackedPairs.devsOf(PackedPairs.pack(2, 1, 4, 0))));
+		assertThat(PackedPairs.devsOf(packedPair), is(not(PackedPairs.devsOf(PackedPairs.pack(1, 3, 0, PackedPairs.OPS)))));
+	}
+
+	@Test
+	public void testFlagsOfPair() {
+		Pair pair = new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")), true, "track1");
+		pair.setCommunityPair(true);
+
+		assertThat(PackedPairs.flagsOf(pair), is(PackedPairs.OPS | PackedPairs.COMMUNITY));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPackSameOrdinals() {
+		PackedPairs.pack(1, 1, 0, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPackOrdinalOutOfRange() {
+		PackedPairs.pack(PackedPairs.MAX_DEVELOPER_ORDINAL + 1, 0, 0, 0);
+	}
+}
@@ -0,0 +1,64 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PairOrdinalsTest {
+
+	@Test
+	public void testEnumeratesAllPairsInPackedOrder() {
+		PairOrdinals subject = new PairOrdinals(4);
+		List<String> pairs = new ArrayList<>();
+		int expectedIndex = 0;
+
+		while (subject.next()) {
+			assertThat(subject.index(), is(expectedIndex++));
+			pairs.add(subject.first() + "-" + subject.second());
+		}
+
+		assertThat(pairs, is(Arrays.asList("0-1", "0-2", "1-2", "0-3", "1-3", "2-3")));
+		assertThat(PairOrdinals.count(4), is(6));
+	}
+
+	@Test
+	public void testNoPairsForLessThanTwo() {
+		assertThat(new PairOrdinals(0).next(), is(false));
+		assertThat(new PairOrdinals(1).next(), is(false));
+	}
+
+	@Test
+	public void testReset() {
+		PairOrdinals subject = new PairOrdinals(2);
+
+		assertThat(subject.next(), is(true));
+		assertThat(subject.next(), is(false));
+
+		subject.reset();
+
+		assertThat(subject.next(), is(true));
+		assertThat(subject.first(), is(0));
+		assertThat(subject.second(), is(1));
+	}
+
+	@Test
+	public void testIndexRoundTrip() {
+		PairOrdinals subject = new PairOrdinals(100);
+
+		while (subject.next()) {
+			assertThat(PairOrdinals.index(subject.second(), subject.first()), is(subject.index()));
+			assertThat(PairOrdinals.firstOf(subject.index()), is(subject.first()));
+			assertThat(PairOrdinals.secondOf(subject.index()), is(subject.second()));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIndexOfSameOrdinals() {
+		PairOrdinals.index(1, 1);
+	}
+}
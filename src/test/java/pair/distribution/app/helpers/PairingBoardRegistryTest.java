@@ -0,0 +1,206 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import pair.distribution.app.persistence.mongodb.AggregationPairsWeightSource;
+import pair.distribution.app.persistence.mongodb.PairStatsWeightSource;
+import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
+
+public class PairingBoardRegistryTest {
+
+	private PairingBoardRegistry subject;
+	private TrelloPairsRepository trelloPairsRepository;
+
+	@Before
+	public void setUp() {
+		trelloPairsRepository = mock(TrelloPairsRepository.class);
+		subject = new PairingBoardRegistry(trelloPairsRepository, "board1", new String[] { " board2", "board1", "" }, 0, 0, 1, 1);
+	}
+
+	@After
+	public void tearDown() {
+		subject.shutdown();
+	}
+
+	@Test
+	public void testBoardIds() {
+		assertThat(subject.getBoardIds(), is(Arrays.asList("board1", "board2")));
+		assertThat(subject.resolveBoardId(null), is("board1"));
+		assertThat(subject.resolveBoardId("board2"), is("board2"));
+		assertThat(subject.getPairsWeightIndex("board1"), is(not(subject.getPairsWeightIndex("board2"))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownBoard() {
+		subject.resolveBoardId("board3");
+	}
+
+	@Test
+	public void testIndexWeightSource() {
+		assertThat(subject.getPairsWeightSource("board2"), is(subject.getPairsWeightIndex("board2")));
+	}
+
+	@Test
+	public void testAggregationWeightSource() {
+		PairingBoardRegistry aggregationSubject = new PairingBoardRegistry(trelloPairsRepository, null, "board1", new String[0], 0, 30, 1, 1, 0, " aggregation");
+
+		assertThat(aggregationSubject.getPairsWeightSource(null) instanceof AggregationPairsWeightSource, is(true));
+		assertThat(aggregationSubject.getPairsWeightUpdates(null), is(nullValue()));
+		aggregationSubject.shutdown();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAggregationWeightSourceWithoutHalfLife() {
+		new PairingBoardRegistry(trelloPairsRepository, null, "board1", new String[0], 14, 0, 1, 1, 0, "aggregation");
+	}
+
+	@Test
+	public void testPairStatsWeightSource() {
+		PairingBoardRegistry pairStatsSubject = new PairingBoardRegistry(trelloPairsRepository, null, "board1", new String[0], 0, 0, 1, 1, 0, "pair_stats");
+
+		assertThat(pairStatsSubject.getPairsWeightSource(null) instanceof PairStatsWeightSource, is(true));
+		assertThat(pairStatsSubject.getPairsWeightUpdates(null), is(pairStatsSubject.getPairsWeightSource(null)));
+		pairStatsSubject.shutdown();
+	}
+
+	@Test
+	public void testPrepareRepositoryForgetsCountedPairStats() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		PairingBoardRegistry aggregationSubject = new PairingBoardRegistry(trelloPairsRepository, mongoTemplate, "board1", new String[0], 0, 0, 1, 1, 0,
+				"aggregation");
+
+		aggregationSubject.prepareRepository();
+
+		verify(mongoTemplate).remove(Query.query(Criteria.where("marker").is("counted")), "pair_stats");
+		aggregationSubject.shutdown();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPairStatsWeightSourceWithoutWindow() {
+		new PairingBoardRegistry(trelloPairsRepository, null, "board1", new String[0], 0, 30, 1, 1, 0, "pair_stats");
+	}
+
+	@Test
+	public void testPrepareRepository() {
+		doThrow(new DuplicateKeyException("duplicate days")).when(trelloPairsRepository).ensureDateIndex();
+
+		subject.prepareRepository();
+
+		verify(trelloPairsRepository).assignBoardToDaysWithoutBoard("board1");
+		verify(trelloPairsRepository).ensureDateIndex();
+	}
+
+	@Test
+	public void testMigrateDaysWithoutBoard() {
+		when(trelloPairsRepository.assignBoardToDaysWithoutBoard("board1")).thenReturn(2L);
+
+		subject.migrateDaysWithoutBoard();
+
+		verify(trelloPairsRepository).assignBoardToDaysWithoutBoard("board1");
+		verify(trelloPairsRepository, never()).saveAll(any());
+	}
+
+	@Test
+	public void testSlowBoardDoesNotBlockOtherBoards() throws InterruptedException {
+		CountDownLatch slowBoardRunning = new CountDownLatch(1);
+		CountDownLatch releaseSlowBoard = new CountDownLatch(1);
+		Thread slowRequest = new Thread(() -> subject.execute("board1", () -> {
+			slowBoardRunning.countDown();
+			return releaseSlowBoard.await(10, TimeUnit.SECONDS);
+		}));
+		slowRequest.start();
+		slowBoardRunning.await(10, TimeUnit.SECONDS);
+
+		assertThat(subject.execute("board2", () -> "done"), is("done"));
+
+		releaseSlowBoard.countDown();
+		slowRequest.join();
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void testFullBoardQueueRejects() throws InterruptedException {
+		CountDownLatch slowBoardRunning = new CountDownLatch(1);
+		CountDownLatch releaseSlowBoard = new CountDownLatch(1);
+		Thread slowRequest = new Thread(() -> subject.execute("board1", () -> {
+			slowBoardRunning.countDown();
+			return releaseSlowBoard.await(10, TimeUnit.SECONDS);
+		}));
+		Thread queuedRequest = new Thread(() -> subject.execute("board1", () -> "queued"));
+		try {
+			slowRequest.start();
+			slowBoardRunning.await(10, TimeUnit.SECONDS);
+			queuedRequest.start();
+			while (queuedRequest.getState() != Thread.State.WAITING) {
+				Thread.sleep(10);
+			}
+
+			subject.execute("board1", () -> "rejected");
+		} finally {
+			releaseSlowBoard.countDown();
+			slowRequest.join();
+			queuedRequest.join();
+		}
+	}
+
+	@Test
+	public void testExecuteAllFromBoardTask() {
+		PairingBoardRegistry multiThreadSubject = new PairingBoardRegistry(trelloPairsRepository, "board1", new String[0], 0, 0, 2, 1);
+		try {
+			List<Callable<String>> tasks = Arrays.asList(() -> "first", () -> "second", () -> "third");
+
+			// one thread of the board runs the calling task, which must not wait for itself
+			List<String> result = subject.execute("board1", () -> subject.executeAll("board1", tasks));
+			List<String> multiThreadResult = multiThreadSubject.execute("board1", () -> multiThreadSubject.executeAll("board1", tasks));
+
+			assertThat(result, is(Arrays.asList("first", "second", "third")));
+			assertThat(multiThreadResult, is(Arrays.asList("first", "second", "third")));
+		} finally {
+			multiThreadSubject.shutdown();
+		}
+	}
+
+	@Test
+	public void testExecuteAllRunsTasksConcurrently() {
+		CountDownLatch bothRunning = new CountDownLatch(2);
+		Callable<Boolean> task = () -> {
+			bothRunning.countDown();
+			return bothRunning.await(5, TimeUnit.SECONDS);
+		};
+
+		// the only thread of the board runs the calling task
+		List<Boolean> result = subject.execute("board1", () -> subject.executeAll("board1", Arrays.asList(task, task)));
+
+		assertThat(result, is(Arrays.asList(true, true)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExecuteAllRethrowsTaskException() {
+		subject.executeAll("board1", Arrays.<Callable<String>>asList(() -> "first", () -> {
+			throw new IllegalStateException("failed");
+		}));
+	}
+}
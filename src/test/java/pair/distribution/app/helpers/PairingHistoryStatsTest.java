@@ -0,0 +1,116 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.DevPairCombinations;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairingHistoryStatsTest {
+
+	@Test
+	public void testAggregate() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		pairsList.get(0).getPairByTrack("track1").setBuildPair(true);
+		pairsList.get(0).getPairByTrack("track2").setCommunityPair(true);
+
+		PairingHistoryStats subject = PairingHistoryStats.aggregate(new DevPairCombinations(pairsList));
+		PairsWeightMatrix pairsWeight = subject.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE);
+
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(2));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev4")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev2", "dev4")), is(0));
+		assertThat(subject.getPairsWeight(getStandardDevs(), PairWeightType.BUILD).getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(subject.getPairsWeight(getStandardDevs(), PairWeightType.COMMUNITY).getWeight(getPair("dev3", "dev4")), is(1));
+		assertThat(subject.getPairingDays(new Developer("dev1")), is(3));
+		assertThat(subject.getPairingDays(new Developer("dev5")), is(0));
+		assertThat(subject.getTrackWeight(new Developer("dev2"), "track1"), is(2));
+		assertThat(subject.getTrackWeight(new Developer("dev2"), "track2"), is(1));
+		assertThat(subject.getTrackWeight(new Developer("dev5"), "track2"), is(0));
+	}
+
+	@Test
+	public void testAddPairCountsSoloDays() {
+		PairingHistoryStats subject = new PairingHistoryStats();
+
+		subject.addPair(new Pair(Arrays.asList(new Developer("dev1")), false, "track1"), 1);
+		subject.addPair(getPair("dev1", "dev2"), 1);
+		subject.addPair(getPair("dev1", "dev2"), -1);
+
+		assertThat(subject.getPairingDays(new Developer("dev1")), is(1));
+		assertThat(subject.getPairingDays(new Developer("dev2")), is(0));
+		assertThat(subject.getTrackWeight(new Developer("dev1"), "track1"), is(1));
+		assertThat(subject.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(0));
+	}
+
+	@Test
+	public void testApplyTo() {
+		List<Developer> devs = getStandardDevs();
+		PairingHistoryStats subject = PairingHistoryStats.aggregate(new DevPairCombinations(getPairsListFromDevs(devs)));
+
+		subject.applyTo(devs);
+
+		assertThat(devs.get(0).getPairingDays(), is(3));
+		assertThat(devs.get(0).getTrackWeight("track1"), is(3));
+		assertThat(devs.get(2).getTrackWeight("track2"), is(3));
+		assertThat(devs.get(3).getTrackWeight("track1"), is(1));
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		PairingHistoryStats subject = PairingHistoryStats.aggregate(new DevPairCombinations(getPairsListFromDevs(getStandardDevs())));
+
+		PairingHistoryStats copy = subject.copy();
+		copy.addPair(getPair("dev1", "dev3"), 1);
+
+		assertThat(copy.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(2));
+		assertThat(copy.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev3")), is(1));
+		assertThat(copy.getPairingDays(new Developer("dev1")), is(4));
+		assertThat(subject.getPairsWeight(getStandardDevs(), PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev3")), is(0));
+		assertThat(subject.getPairingDays(new Developer("dev1")), is(3));
+	}
+
+	private Pair getPair(String firstDevId, String secondDevId) {
+		return new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId)));
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+
+	private List<DayPairs> getPairsListFromDevs(List<Developer> devs) {
+		ArrayList<DayPairs> result = new ArrayList<DayPairs>();
+		for (int i = 1; i < 3; i++) {
+			DayPairs pairs = new DayPairs();
+			pairs.setDate(getPastDate(i));
+			pairs.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(1)), false, "track1"));
+			pairs.addPair("track2", new Pair(Arrays.asList(devs.get(2), devs.get(3)), false, "track2"));
+			result.add(pairs);
+		}
+		DayPairs pairs = new DayPairs();
+		pairs.setDate(getPastDate(3));
+		pairs.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(3)), false, "track1"));
+		pairs.addPair("track2", new Pair(Arrays.asList(devs.get(2), devs.get(1)), false, "track2"));
+		result.add(pairs);
+
+		return result;
+	}
+
+	private Date getPastDate(int daysCountToPast) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(new Date());
+		cal.add(Calendar.DATE, -(daysCountToPast));
+		return cal.getTime();
+	}
+}
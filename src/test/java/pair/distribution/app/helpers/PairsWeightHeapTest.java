@@ -0,0 +1,75 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairsWeightHeapTest {
+
+	@Test
+	public void testPeekReturnsPairWithSmallestWeight() {
+		PairsWeightMatrix pairsWeight = getPairsWeight();
+
+		PairsWeightHeap subject = new PairsWeightHeap(pairsWeight, getStandardDevs());
+
+		assertThat(subject.size(), is(6));
+		assertThat(subject.peek(), is(getPair("dev2", "dev4")));
+	}
+
+	@Test
+	public void testPeekBreaksTiesInPairOrdinalsOrder() {
+		PairsWeightHeap subject = new PairsWeightHeap(new PairsWeightMatrix(getStandardDevs()), getStandardDevs());
+
+		assertThat(subject.peek(), is(getPair("dev1", "dev2")));
+	}
+
+	@Test
+	public void testRemoveDevelopers() {
+		PairsWeightHeap subject = new PairsWeightHeap(getPairsWeight(), getStandardDevs());
+
+		subject.removeDevelopers(getPair("dev2", "dev4"));
+
+		assertThat(subject.size(), is(1));
+		assertThat(subject.peek(), is(getPair("dev1", "dev3")));
+
+		subject.removeDeveloper(new Developer("dev3"));
+
+		assertThat(subject.isEmpty(), is(true));
+		assertThat(subject.peek(), is(nullValue()));
+	}
+
+	@Test
+	public void testOnlyAvailableDevelopersArePaired() {
+		PairsWeightHeap subject = new PairsWeightHeap(getPairsWeight(), Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev5")));
+
+		assertThat(subject.size(), is(1));
+		assertThat(subject.peek(), is(getPair("dev1", "dev2")));
+	}
+
+	private PairsWeightMatrix getPairsWeight() {
+		PairsWeightMatrix result = new PairsWeightMatrix(getStandardDevs());
+		result.setWeight(0, 1, 3);
+		result.setWeight(0, 2, 2);
+		result.setWeight(0, 3, 4);
+		result.setWeight(1, 2, 2);
+		result.setWeight(1, 3, 1);
+		result.setWeight(2, 3, 5);
+		return result;
+	}
+
+	private Pair getPair(String firstDevId, String secondDevId) {
+		return new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId)));
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+}
@@ -0,0 +1,231 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairsWeightIndexTest {
+
+	private PairsWeightIndex subject;
+	private TrelloPairsRepository trelloPairsRepository;
+
+	@Before
+	public void setUp() {
+		trelloPairsRepository = mock(TrelloPairsRepository.class);
+		subject = new PairsWeightIndex(trelloPairsRepository);
+	}
+
+	@Test
+	public void testGetPairsWeightLoadsRepositoryOnce() {
+		when(trelloPairsRepository.findAll()).thenReturn(getPairsListFromDevs(getStandardDevs()));
+
+		subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+		PairsWeightMatrix pairsWeight = subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+
+		verify(trelloPairsRepository, times(1)).findAll();
+		assertThat(pairsWeight.size(), is(4));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(2));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3")), is(0));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev4")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev2", "dev3")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev2", "dev4")), is(0));
+		assertThat(pairsWeight.getWeight(getPair("dev3", "dev4")), is(2));
+	}
+
+	@Test
+	public void testGetPairsWeightSeparatesOpsPairs() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		pairsList.get(0).getPairByTrack("track1").setOpsPair(true);
+		when(trelloPairsRepository.findAll()).thenReturn(pairsList);
+
+		assertThat(subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(subject.getPairsWeight(getStandardDevs(), true, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(subject.getPairsWeight(getStandardDevs(), true, PairWeightType.COMPLETE).getWeight(getPair("dev3", "dev4")), is(0));
+	}
+
+	@Test
+	public void testGetPairsWeightByFlag() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		pairsList.get(0).getPairByTrack("track1").setBuildPair(true);
+		pairsList.get(2).getPairByTrack("track2").setCommunityPair(true);
+		when(trelloPairsRepository.findAll()).thenReturn(pairsList);
+
+		PairsWeightMatrix buildPairsWeight = subject.getPairsWeight(getStandardDevs(), false, PairWeightType.BUILD);
+		PairsWeightMatrix communityPairsWeight = subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMMUNITY);
+
+		assertThat(buildPairsWeight.getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(buildPairsWeight.getWeight(getPair("dev3", "dev4")), is(0));
+		assertThat(communityPairsWeight.getWeight(getPair("dev2", "dev3")), is(1));
+		assertThat(communityPairsWeight.getWeight(getPair("dev1", "dev2")), is(0));
+	}
+
+	@Test
+	public void testAddAndReplaceDay() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findAll()).thenReturn(new ArrayList<>(pairsList.subList(1, 3)));
+		DayPairs replacement = new DayPairs();
+		replacement.setDate(pairsList.get(0).getDate());
+		replacement.addPair("track1", getPair("dev1", "dev3"));
+
+		subject.addDay(pairsList.get(0));
+		subject.replaceDay(pairsList.get(0), replacement);
+		PairsWeightMatrix pairsWeight = subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev3", "dev4")), is(1));
+	}
+
+	@Test
+	public void testRemoveDayAndReset() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findAll()).thenReturn(pairsList);
+
+		subject.removeDay(pairsList.get(0));
+
+		assertThat(subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(1));
+
+		subject.reset();
+
+		assertThat(subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev2")), is(2));
+		verify(trelloPairsRepository, times(2)).findAll();
+	}
+
+	@Test
+	public void testApplyDevelopersHistory() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		pairsList.get(0).getPairByTrack("track2").setOpsPair(true);
+		when(trelloPairsRepository.findAll()).thenReturn(pairsList);
+		List<Developer> devs = getStandardDevs();
+
+		subject.applyDevelopersHistory(devs, false);
+
+		assertThat(devs.get(0).getPairingDays(), is(3));
+		assertThat(devs.get(2).getPairingDays(), is(2));
+		assertThat(devs.get(2).getTrackWeight("track2"), is(2));
+	}
+
+	@Test
+	public void testDecayedPairsWeightLoadsOnlyWindow() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findByDateGreaterThanEqual(any(Date.class))).thenReturn(pairsList.subList(0, 2));
+		PairsWeightIndex decayedSubject = new PairsWeightIndex(trelloPairsRepository, 1, 2);
+
+		PairsWeightMatrix pairsWeight = decayedSubject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+
+		verify(trelloPairsRepository, times(0)).findAll();
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(150));
+		assertThat(pairsWeight.getWeight(getPair("dev3", "dev4")), is(150));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev4")), is(0));
+
+		decayedSubject.addDay(getNextDay(pairsList.get(0)));
+
+		pairsWeight = decayedSubject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(50));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3")), is(100));
+	}
+
+	@Test
+	public void testGetPairsWeightLoadsOnlyBoard() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findByBoardId("board1")).thenReturn(pairsList.subList(0, 1));
+		PairsWeightIndex boardSubject = new PairsWeightIndex(trelloPairsRepository, "board1", 0, 0);
+
+		PairsWeightMatrix pairsWeight = boardSubject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+
+		verify(trelloPairsRepository, times(0)).findAll();
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(1));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev4")), is(0));
+	}
+
+	@Test
+	public void testInMemoryCopy() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findAll()).thenReturn(pairsList);
+
+		PairsWeightIndex copy = subject.inMemoryCopy();
+		copy.addDay(getNextDay(pairsList.get(0)));
+
+		PairsWeightMatrix pairsWeight = copy.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE);
+		verify(trelloPairsRepository, times(1)).findAll();
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev2")), is(2));
+		assertThat(pairsWeight.getWeight(getPair("dev1", "dev3")), is(1));
+		assertThat(subject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev3")), is(0));
+	}
+
+	@Test
+	public void testDecayedInMemoryCopy() {
+		List<DayPairs> pairsList = getPairsListFromDevs(getStandardDevs());
+		when(trelloPairsRepository.findByBoardId("board1")).thenReturn(pairsList);
+		PairsWeightIndex decayedSubject = new PairsWeightIndex(trelloPairsRepository, "board1", 1, 0);
+
+		PairsWeightIndex copy = decayedSubject.inMemoryCopy();
+		copy.addDay(getNextDay(pairsList.get(0)));
+
+		verify(trelloPairsRepository, times(1)).findByBoardId("board1");
+		assertThat(copy.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev3")) > 0, is(true));
+		assertThat(decayedSubject.getPairsWeight(getStandardDevs(), false, PairWeightType.COMPLETE).getWeight(getPair("dev1", "dev3")), is(0));
+	}
+
+	private DayPairs getNextDay(DayPairs dayPairs) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(dayPairs.getDate());
+		cal.add(Calendar.DATE, 1);
+		DayPairs result = new DayPairs();
+		result.setDate(cal.getTime());
+		result.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev3")), false, "track1"));
+		return result;
+	}
+
+	private Pair getPair(String firstDevId, String secondDevId) {
+		return new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId)));
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+
+	private List<DayPairs> getPairsListFromDevs(List<Developer> devs) {
+		ArrayList<DayPairs> result = new ArrayList<DayPairs>();
+		for (int i = 1; i < 3; i++) {
+			DayPairs pairs = new DayPairs();
+			pairs.setDate(getPastDate(i));
+			pairs.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(1)), false, "track1"));
+			pairs.addPair("track2", new Pair(Arrays.asList(devs.get(2), devs.get(3)), false, "track2"));
+			result.add(pairs);
+		}
+		DayPairs pairs = new DayPairs();
+		pairs.setDate(getPastDate(3));
+		pairs.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(3)), false, "track1"));
+		pairs.addPair("track2", new Pair(Arrays.asList(devs.get(2), devs.get(1)), false, "track2"));
+		result.add(pairs);
+
+		return result;
+	}
+
+	private Date getPastDate(int daysCountToPast) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(new Date());
+		cal.add(Calendar.DATE, -(daysCountToPast));
+		return cal.getTime();
+	}
+}
@@ -0,0 +1,90 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairsWeightMatrixTest {
+
+	@Test
+	public void testWeightsAreSymmetric() {
+		PairsWeightMatrix subject = new PairsWeightMatrix(getStandardDevs());
+
+		subject.setWeight(0, 3, 5);
+		subject.addWeight(3, 0, 2);
+
+		assertThat(subject.getWeight(0, 3), is(7));
+		assertThat(subject.getWeight(3, 0), is(7));
+		assertThat(subject.getWeight(0, 1), is(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWeightForSameDeveloper() {
+		new PairsWeightMatrix(getStandardDevs()).getWeight(1, 1);
+	}
+
+	@Test
+	public void testAddDeveloperKeepsWeights() {
+		PairsWeightMatrix subject = new PairsWeightMatrix();
+		subject.addWeight(subject.addDeveloper(new Developer("dev1")), subject.addDeveloper(new Developer("dev2")), 1);
+
+		int ordinal = subject.addDeveloper(new Developer("dev3"));
+		subject.addWeight(ordinal, subject.addDeveloper(new Developer("dev1")), 4);
+
+		assertThat(subject.size(), is(3));
+		assertThat(subject.getOrdinal(new Developer("dev3")), is(2));
+		assertThat(subject.getOrdinal(new Developer("dev4")), is(-1));
+		assertThat(subject.getWeight(0, 1), is(1));
+		assertThat(subject.getWeight(0, 2), is(4));
+		assertThat(subject.getWeight(1, 2), is(0));
+	}
+
+	@Test
+	public void testSubMatrix() {
+		PairsWeightMatrix subject = new PairsWeightMatrix(getStandardDevs());
+		subject.setWeight(1, 3, 2);
+		subject.setWeight(0, 1, 1);
+
+		PairsWeightMatrix subMatrix = subject.subMatrix(Arrays.asList(new Developer("dev4"), new Developer("dev2"), new Developer("dev5")));
+
+		assertThat(subMatrix.size(), is(3));
+		assertThat(subMatrix.getWeight(0, 1), is(2));
+		assertThat(subMatrix.getWeight(0, 2), is(0));
+		assertThat(subMatrix.getWeight(1, 2), is(0));
+	}
+
+	@Test
+	public void testFromMapAndToMap() {
+		Map<Pair, Integer> pairsWeight = new HashMap<>();
+		pairsWeight.put(getPair("dev1", "dev2"), 3);
+		pairsWeight.put(getPair("dev3", "dev5"), 7);
+		pairsWeight.put(new Pair(Arrays.asList(new Developer("dev4"))), 1);
+
+		PairsWeightMatrix subject = PairsWeightMatrix.fromMap(getStandardDevs(), pairsWeight);
+		Map<Pair, Integer> result = subject.toMap();
+
+		assertThat(subject.getWeight(getPair("dev1", "dev2")), is(3));
+		assertThat(subject.hasPair(getPair("dev3", "dev5")), is(false));
+		assertThat(subject.hasPair(new Pair(Arrays.asList(new Developer("dev4")))), is(false));
+		assertThat(result.size(), is(6));
+		assertThat(result.get(getPair("dev1", "dev2")), is(3));
+		assertThat(result.get(getPair("dev3", "dev4")), is(0));
+	}
+
+	private Pair getPair(String firstDevId, String secondDevId) {
+		return new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId)));
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+}
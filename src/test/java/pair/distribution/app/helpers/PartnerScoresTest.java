@@ -0,0 +1,50 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import pair.distribution.app.trello.entities.Developer;
+
+public class PartnerScoresTest {
+
+	@Test
+	public void testGetScoreRelativeToPairingDays() {
+		List<Developer> devs = getStandardDevs();
+		devs.get(1).setPairingDays(4);
+		devs.get(1).setTrackWeight("track1", 2);
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs);
+		pairsWeight.setWeight(0, 1, 2);
+
+		PartnerScores subject = new PartnerScores(pairsWeight);
+
+		assertThat(subject.getScore(0, 1, "track1"), is(1.0f));
+		assertThat(subject.getScore(0, 1, "track2"), is(0.5f));
+		assertThat(subject.getScore(1, 0, "track1"), is(0.0f));
+		assertThat(subject.getPairScore(1, 0), is(0.25f));
+	}
+
+	@Test
+	public void testGetBestPartner() {
+		List<Developer> devs = getStandardDevs();
+		devs.stream().forEach(developer -> developer.setPairingDays(2));
+		PairsWeightMatrix pairsWeight = new PairsWeightMatrix(devs);
+		pairsWeight.setWeight(0, 1, 1);
+		pairsWeight.setWeight(0, 2, 2);
+		pairsWeight.setWeight(0, 3, 3);
+
+		PartnerScores subject = new PartnerScores(pairsWeight);
+
+		assertThat(subject.getBestPartner(0, new boolean[] {true, true, true, true}, "track1"), is(1));
+		assertThat(subject.getBestPartner(0, new boolean[] {true, false, true, true}, "track1"), is(2));
+		assertThat(subject.getBestPartner(0, new boolean[] {true, false, false, false}, "track1"), is(-1));
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+}
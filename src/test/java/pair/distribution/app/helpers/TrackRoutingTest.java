@@ -0,0 +1,68 @@
+package pair.distribution.app.helpers;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.Developer;
+
+public class TrackRoutingTest {
+
+	@Test
+	public void testGetCompany() {
+		Company companyFoo = new Company("FOO");
+		Company companyBar = new Company("bar");
+		List<String> tracks = Arrays.asList("foo-track1", "Bar-track2", "track3", "bar");
+
+		TrackRouting subject = new TrackRouting(tracks, getDevs(companyFoo, companyBar), Arrays.asList(companyFoo, companyBar));
+
+		assertThat(subject.getCompany("foo-track1"), is(companyFoo));
+		assertThat(subject.getCompany("Bar-track2"), is(companyBar));
+		assertThat(subject.getCompany("track3"), is(nullValue()));
+		assertThat(subject.getCompany("bar"), is(companyBar));
+		assertThat(subject.getCompany("unknown-track"), is(nullValue()));
+	}
+
+	@Test
+	public void testGetDevelopers() {
+		Company companyFoo = new Company("FOO");
+		Company companyBar = new Company("bar");
+		List<Developer> devs = getDevs(companyFoo, companyBar);
+
+		TrackRouting subject = new TrackRouting(Arrays.asList("foo-track1"), devs, Arrays.asList(companyFoo, companyBar));
+
+		assertThat(subject.getDevelopers(companyFoo), is(Arrays.asList(devs.get(0), devs.get(2))));
+		assertThat(subject.getDevelopers(companyBar), is(Arrays.asList(devs.get(1), devs.get(3))));
+		assertThat(subject.getDevelopersCount(companyFoo), is(2));
+	}
+
+	@Test
+	public void testRemoveDevelopers() {
+		Company companyFoo = new Company("FOO");
+		Company companyBar = new Company("bar");
+		List<Developer> devs = getDevs(companyFoo, companyBar);
+		TrackRouting subject = new TrackRouting(Arrays.asList("foo-track1"), devs, Arrays.asList(companyFoo, companyBar));
+		List<Developer> fooDevelopers = subject.getDevelopers(companyFoo);
+
+		subject.removeDevelopers(Arrays.asList(devs.get(0), devs.get(1)));
+
+		assertThat(subject.getDevelopers(companyFoo), is(Arrays.asList(devs.get(2))));
+		assertThat(subject.getDevelopers(companyBar), is(Arrays.asList(devs.get(3))));
+		assertThat(fooDevelopers.size(), is(2));
+	}
+
+	private List<Developer> getDevs(Company companyFoo, Company companyBar) {
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+		devs.get(0).setCompany(companyFoo);
+		devs.get(1).setCompany(companyBar);
+		devs.get(2).setCompany(companyFoo);
+		devs.get(3).setCompany(companyBar);
+		return devs;
+	}
+}
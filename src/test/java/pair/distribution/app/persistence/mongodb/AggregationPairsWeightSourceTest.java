@@ -0,0 +1,90 @@
+package pair.distribution.app.persistence.mongodb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+
+public class AggregationPairsWeightSourceTest {
+
+	@Test
+	public void testPipelineFiltersBoardAndOps() {
+		List<Document> result = new AggregationPairsWeightSource(null, "board1", 0).getPipeline(true);
+
+		assertThat(result.get(0), is(new Document("$match", new Document("boardId", "board1"))));
+		assertThat(result.get(5), is(new Document("$match", new Document("ops", true))));
+		assertThat(((Document) result.get(6).get("$facet")).keySet().size(), is(2));
+	}
+
+	@Test
+	public void testPipelineWithWindow() {
+		Document match = (Document) new AggregationPairsWeightSource(null, "board1", 30).getPipeline(false).get(0).get("$match");
+
+		assertThat(match.containsKey("date"), is(true));
+	}
+
+	@Test
+	public void testReadStats() {
+		Document result = new Document("pairs", Arrays.asList(getPairCount(Arrays.asList("dev1", "dev2"), 0, 3),
+				getPairCount(Arrays.asList("dev2", "dev1"), 1, 2), getPairCount(Arrays.asList("dev1", "dev3"), 2, 1)))
+				.append("developers", Arrays.asList(getDeveloperCount("dev1", "track1", 4), getDeveloperCount("dev1", "track2", 2),
+						getDeveloperCount("dev2", "track1", 5)));
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"));
+
+		PairingHistoryStats stats = AggregationPairsWeightSource.readStats(result);
+
+		PairsWeightMatrix complete = stats.getPairsWeight(devs, PairWeightType.COMPLETE);
+		assertThat(complete.getWeight(complete.getOrdinal(devs.get(0)), complete.getOrdinal(devs.get(1))), is(5));
+		assertThat(complete.getWeight(complete.getOrdinal(devs.get(0)), complete.getOrdinal(devs.get(2))), is(1));
+		PairsWeightMatrix build = stats.getPairsWeight(devs, PairWeightType.BUILD);
+		assertThat(build.getWeight(build.getOrdinal(devs.get(0)), build.getOrdinal(devs.get(1))), is(2));
+		PairsWeightMatrix community = stats.getPairsWeight(devs, PairWeightType.COMMUNITY);
+		assertThat(community.getWeight(community.getOrdinal(devs.get(0)), community.getOrdinal(devs.get(2))), is(1));
+		assertThat(stats.getPairingDays(devs.get(0)), is(6));
+		assertThat(stats.getTrackWeight(devs.get(0), "track2"), is(2));
+		assertThat(stats.getPairingDays(devs.get(2)), is(0));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testApplyDevelopersHistory() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		MongoCollection<Document> collection = mock(MongoCollection.class);
+		AggregateIterable<Document> aggregateIterable = mock(AggregateIterable.class);
+		AggregationPairsWeightSource subject = new AggregationPairsWeightSource(mongoTemplate, "board1", 0);
+		when(mongoTemplate.getCollectionName(DayPairs.class)).thenReturn("dayPairs");
+		when(mongoTemplate.getCollection("dayPairs")).thenReturn(collection);
+		when(collection.aggregate(subject.getPipeline(false))).thenReturn(aggregateIterable);
+		when(aggregateIterable.first()).thenReturn(new Document("developers", Arrays.asList(getDeveloperCount("dev1", "track1", 4))));
+		List<Developer> devs = Arrays.asList(new Developer("dev1"));
+
+		subject.applyDevelopersHistory(devs, false);
+
+		assertThat(devs.get(0).getPairingDays(), is(4));
+		assertThat(devs.get(0).getTrackWeight("track1"), is(4));
+	}
+
+	private Document getPairCount(List<String> devs, int flags, int count) {
+		return new Document("_id", new Document("devs", devs).append("flags", flags)).append("count", count);
+	}
+
+	private Document getDeveloperCount(String developer, String track, int count) {
+		return new Document("_id", new Document("developer", developer).append("track", track)).append("count", count);
+	}
+}
@@ -0,0 +1,80 @@
+package pair.distribution.app.persistence.mongodb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteRequest;
+
+import pair.distribution.app.trello.entities.DayPairs;
+
+public class LeanSchemaMigrationTest {
+
+	private MongoTemplate mongoTemplate;
+	private BulkOperations bulkOperations;
+	private LeanSchemaMigration subject;
+
+	@Before
+	public void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		bulkOperations = mock(BulkOperations.class);
+		when(mongoTemplate.getCollectionName(DayPairs.class)).thenReturn("dayPairs");
+		when(mongoTemplate.getConverter()).thenReturn(PairConvertersTest.createConverter());
+		when(mongoTemplate.bulkOps(BulkMode.UNORDERED, "dayPairs")).thenReturn(bulkOperations);
+		subject = new LeanSchemaMigration(mongoTemplate, true);
+	}
+
+	@Test
+	public void testMigrateLegacyDays() {
+		ObjectId id = new ObjectId();
+		Document legacyPairs = new Document("track1", new Document("devs", Arrays.asList(new Document("_id", "dev1").append("newDeveloper", true),
+				new Document("_id", "dev2"))).append("opsPair", true).append("track", "track1"));
+		Document leanPairs = new Document("track1", new Document("devs", Arrays.asList("dev1", "dev2")).append("track", "track1").append("flags", 4 | 16));
+		mockDocuments(new Document("_id", id).append("boardId", "board1").append("pairs", legacyPairs),
+				new Document("_id", new ObjectId()).append("boardId", "board1").append("pairs", leanPairs));
+		when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(WriteRequest.Type.UPDATE, 1, Integer.valueOf(1), Collections.emptyList()));
+
+		int result = subject.migrate();
+
+		assertThat(result, is(1));
+		verify(bulkOperations).updateOne(Query.query(Criteria.where("_id").is(id).and("pairs").is(legacyPairs)), Update.update("pairs", leanPairs));
+	}
+
+	@Test
+	public void testMigrateNothing() {
+		mockDocuments(new Document("_id", new ObjectId()).append("pairs", new Document()));
+
+		assertThat(subject.migrate(), is(0));
+		verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), any(String.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void mockDocuments(Document... documents) {
+		Iterator<Document> iterator = Arrays.asList(documents).iterator();
+		CloseableIterator<Document> result = mock(CloseableIterator.class);
+		when(result.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+		when(result.next()).thenAnswer(invocation -> iterator.next());
+		when(mongoTemplate.stream(any(Query.class), any(Class.class), any(String.class))).thenReturn(result);
+	}
+}
@@ -0,0 +1,99 @@
+package pair.distribution.app.persistence.mongodb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import pair.distribution.app.trello.entities.Company;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairConvertersTest {
+
+	private MappingMongoConverter converter;
+
+	@Before
+	public void setUp() {
+		converter = createConverter();
+	}
+
+	@Test
+	public void testWriteStoresIdsTrackAndFlags() {
+		Developer newDeveloper = new Developer("dev2");
+		newDeveloper.setNew(true);
+		newDeveloper.setCompany(new Company("company"));
+		newDeveloper.setPairingDays(3);
+		Pair pair = new Pair(Arrays.asList(new Developer("dev1"), newDeveloper), true, "track1");
+		pair.setLockedPair(true);
+
+		Document result = new PairWriteConverter().convert(pair);
+
+		assertThat(result, is(new Document("devs", Arrays.asList("dev1", "dev2")).append("track", "track1").append("flags", 4 | 8 | 32)));
+	}
+
+	@Test
+	public void testDayPairsRoundTrip() {
+		Developer newDeveloper = new Developer("dev1");
+		newDeveloper.setNew(true);
+		Pair buildPair = new Pair(Arrays.asList(newDeveloper, new Developer("dev2")), false, "track1");
+		buildPair.setBuildPair(true);
+		DayPairs dayPairs = new DayPairs();
+		dayPairs.setBoardId("board1");
+		dayPairs.addPair("track1", buildPair);
+		dayPairs.addPair("track2", new Pair(Arrays.asList(new Developer("dev3")), false, "track2"));
+		Document document = new Document();
+
+		converter.write(dayPairs, document);
+		DayPairs result = converter.read(DayPairs.class, document);
+
+		assertThat(((Document) document.get("pairs")).get("track1"), is(new PairWriteConverter().convert(buildPair)));
+		assertThat(result, is(dayPairs));
+		assertThat(result.getBoardId(), is("board1"));
+		assertThat(result.getPairs(), is(dayPairs.getPairs()));
+		Pair resultPair = result.getPairByTrack("track1");
+		assertThat(resultPair.isBuildPair(), is(true));
+		assertThat(resultPair.isOpsPair(), is(false));
+		assertThat(resultPair.getTrack(), is("track1"));
+		assertThat(resultPair.getDevs().get(0).getNew(), is(true));
+		assertThat(resultPair.getDevs().get(1).getNew(), is(false));
+	}
+
+	@Test
+	public void testReadLegacyPair() {
+		Document legacyDeveloper = new Document("_id", "dev2").append("company", new Document("name", "company")).append("newDeveloper", true)
+				.append("pairingDays", 5).append("trackWeights", new Document("track1", 2));
+		Document legacyPair = new Document("devs", Arrays.asList(new Document("_id", "dev1"), legacyDeveloper)).append("buildPair", false)
+				.append("communityPair", true).append("opsPair", true).append("track", "track1").append("isLockedPair", false);
+
+		Pair result = new PairReadConverter().convert(legacyPair);
+
+		assertThat(result, is(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")))));
+		assertThat(result.isCommunityPair(), is(true));
+		assertThat(result.isOpsPair(), is(true));
+		assertThat(result.isBuildPair(), is(false));
+		assertThat(result.isLockedPair(), is(false));
+		assertThat(result.getTrack(), is("track1"));
+		assertThat(result.getDevs().get(1).getNew(), is(true));
+		assertThat(result.getDevs().get(1).getPairingDays(), is(0));
+		assertThat(PairReadConverter.isLegacy(legacyPair), is(true));
+	}
+
+	static MappingMongoConverter createConverter() {
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		MappingMongoConverter result = new MappingMongoConverter(mock(DbRefResolver.class), mappingContext);
+		result.setCustomConversions(new MongoConfiguration().customConversions());
+		mappingContext.setSimpleTypeHolder(new MongoConfiguration().customConversions().getSimpleTypeHolder());
+		result.afterPropertiesSet();
+		return result;
+	}
+}
@@ -0,0 +1,182 @@
+package pair.distribution.app.persistence.mongodb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import pair.distribution.app.helpers.PairingHistoryStats;
+import pair.distribution.app.helpers.PairsWeightIndex;
+import pair.distribution.app.helpers.PairsWeightIndex.PairWeightType;
+import pair.distribution.app.helpers.PairsWeightMatrix;
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class PairStatsWeightSourceTest {
+
+	private MongoTemplate mongoTemplate;
+	private BulkOperations bulkOperations;
+	private PairStatsWeightSource subject;
+
+	@Before
+	public void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		bulkOperations = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkMode.UNORDERED, "pair_stats")).thenReturn(bulkOperations);
+		subject = new PairStatsWeightSource(mongoTemplate, "board1");
+	}
+
+	@Test
+	public void testAddDay() {
+		Pair buildPair = new Pair(Arrays.asList(new Developer("dev2"), new Developer("dev1")), false, "track1");
+		buildPair.setBuildPair(true);
+		DayPairs dayPairs = new DayPairs();
+		dayPairs.addPair("track1", buildPair);
+		dayPairs.addPair("track2", new Pair(Arrays.asList(new Developer("dev3")), true, "track2"));
+
+		subject.addDay(dayPairs);
+
+		verify(bulkOperations).upsert(getQuery(new Document("boardId", "board1").append("ops", false).append("first", "dev1").append("second", "dev2")),
+				new Update().setOnInsert("boardId", "board1").setOnInsert("ops", false).inc("complete", 1).inc("build", 1).inc("community", 0));
+		verify(bulkOperations).upsert(getQuery(getTrackKey("dev1", false, "track1")), getTrackUpdate(false, 1));
+		verify(bulkOperations).upsert(getQuery(getTrackKey("dev2", false, "track1")), getTrackUpdate(false, 1));
+		verify(bulkOperations).upsert(getQuery(getTrackKey("dev3", true, "track2")), getTrackUpdate(true, 1));
+		verify(bulkOperations, times(4)).upsert(any(Query.class), any(Update.class));
+		verify(bulkOperations).execute();
+	}
+
+	@Test
+	public void testReplaceDayNetsOut() {
+		DayPairs oldDayPairs = new DayPairs();
+		oldDayPairs.addPair("track1", new Pair(Arrays.asList(new Developer("dev1")), false, "track1"));
+		DayPairs newDayPairs = new DayPairs();
+		newDayPairs.addPair("track1", new Pair(Arrays.asList(new Developer("dev1")), false, "track1"));
+		newDayPairs.addPair("track2", new Pair(Arrays.asList(new Developer("dev2")), false, "track2"));
+
+		subject.replaceDay(oldDayPairs, newDayPairs);
+
+		verify(bulkOperations).upsert(getQuery(getTrackKey("dev2", false, "track2")), getTrackUpdate(false, 1));
+		verify(bulkOperations, times(1)).upsert(any(Query.class), any(Update.class));
+	}
+
+	@Test
+	public void testReplaceSameDayWritesNothing() {
+		DayPairs oldDayPairs = new DayPairs();
+		oldDayPairs.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")), false, "track1"));
+		DayPairs newDayPairs = new DayPairs();
+		newDayPairs.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")), false, "track1"));
+
+		subject.replaceDay(oldDayPairs, newDayPairs);
+
+		verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), any(String.class));
+	}
+
+	@Test
+	public void testEnsureCountedKeepsCountedBoard() {
+		when(mongoTemplate.exists(getMarkerQuery(), "pair_stats")).thenReturn(true);
+
+		subject.ensureCounted();
+
+		verify(mongoTemplate, never()).remove(any(Query.class), any(String.class));
+		verify(mongoTemplate, never()).stream(any(Query.class), eq(DayPairs.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testEnsureCountedRebuildsUncountedBoard() {
+		when(mongoTemplate.stream(Query.query(Criteria.where("boardId").is("board1")), DayPairs.class)).thenReturn(mock(CloseableIterator.class));
+
+		subject.ensureCounted();
+
+		verify(mongoTemplate).remove(Query.query(Criteria.where("boardId").is("board1")), "pair_stats");
+		verify(mongoTemplate).upsert(getMarkerQuery(), new Update().set("boardId", "board1").set("marker", "counted"), "pair_stats");
+	}
+
+	@Test
+	public void testResetMarksBoardCounted() {
+		subject.reset();
+
+		verify(mongoTemplate).remove(Query.query(Criteria.where("boardId").is("board1")), "pair_stats");
+		verify(mongoTemplate).upsert(getMarkerQuery(), new Update().set("boardId", "board1").set("marker", "counted"), "pair_stats");
+	}
+
+	@Test
+	public void testRemoveEmptyDay() {
+		subject.removeDay(new DayPairs());
+
+		verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), any(String.class));
+	}
+
+	@Test
+	public void testRead() {
+		List<Document> counters = Arrays.asList(
+				new Document("_id", new Document("boardId", "board1").append("ops", false).append("first", "dev1").append("second", "dev2"))
+						.append("complete", 4).append("build", 1).append("community", 2),
+				new Document("_id", getTrackKey("dev1", false, "track1")).append("days", 3),
+				new Document("_id", getTrackKey("dev1", false, "track2")).append("days", 1));
+		when(mongoTemplate.find(Query.query(Criteria.where("boardId").is("board1").and("ops").is(false)), Document.class, "pair_stats")).thenReturn(counters);
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"));
+
+		PairingHistoryStats result = subject.read(false);
+
+		PairsWeightMatrix complete = result.getPairsWeight(devs, PairWeightType.COMPLETE);
+		assertThat(complete.getWeight(complete.getOrdinal(devs.get(0)), complete.getOrdinal(devs.get(1))), is(4));
+		PairsWeightMatrix community = result.getPairsWeight(devs, PairWeightType.COMMUNITY);
+		assertThat(community.getWeight(community.getOrdinal(devs.get(0)), community.getOrdinal(devs.get(1))), is(2));
+		assertThat(result.getPairingDays(devs.get(0)), is(4));
+		assertThat(result.getTrackWeight(devs.get(0), "track1"), is(3));
+	}
+
+	@Test
+	public void testInMemoryCopyNeverWrites() {
+		List<Document> counters = Arrays.asList(new Document("_id", getTrackKey("dev1", false, "track1")).append("days", 3));
+		when(mongoTemplate.find(Query.query(Criteria.where("boardId").is("board1").and("ops").is(false)), Document.class, "pair_stats")).thenReturn(counters);
+		DayPairs dayPairs = new DayPairs();
+		dayPairs.addPair("track1", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")), false, "track1"));
+		List<Developer> devs = Arrays.asList(new Developer("dev1"), new Developer("dev2"));
+
+		PairsWeightIndex copy = subject.inMemoryCopy();
+		copy.addDay(dayPairs);
+		copy.applyDevelopersHistory(devs, false);
+
+		verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), any(String.class));
+		assertThat(devs.get(0).getPairingDays(), is(4));
+		assertThat(devs.get(1).getPairingDays(), is(1));
+	}
+
+	private Query getMarkerQuery() {
+		return getQuery(new Document("boardId", "board1").append("marker", "counted"));
+	}
+
+	private Query getQuery(Document key) {
+		return Query.query(Criteria.where("_id").is(key));
+	}
+
+	private Document getTrackKey(String developer, boolean ops, String track) {
+		return new Document("boardId", "board1").append("ops", ops).append("developer", developer).append("track", track);
+	}
+
+	private Update getTrackUpdate(boolean ops, int delta) {
+		return new Update().setOnInsert("boardId", "board1").setOnInsert("ops", ops).inc("days", delta);
+	}
+}
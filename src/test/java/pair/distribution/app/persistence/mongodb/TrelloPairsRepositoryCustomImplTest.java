@@ -0,0 +1,199 @@
+package pair.distribution.app.persistence.mongodb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+
+import org.bson.BsonInt32;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.bulk.WriteRequest;
+import com.mongodb.client.result.UpdateResult;
+
+import pair.distribution.app.trello.entities.DayPairs;
+import pair.distribution.app.trello.entities.Developer;
+import pair.distribution.app.trello.entities.Pair;
+
+public class TrelloPairsRepositoryCustomImplTest {
+
+	private MongoTemplate mongoTemplate;
+	private BulkOperations bulkOperations;
+	private TrelloPairsRepositoryCustomImpl subject;
+
+	@Before
+	public void setUp() {
+		mongoTemplate = mock(MongoTemplate.class);
+		bulkOperations = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkMode.UNORDERED, DayPairs.class)).thenReturn(bulkOperations);
+		when(mongoTemplate.getConverter()).thenReturn(getConverter());
+		when(mongoTemplate.getCollectionName(DayPairs.class)).thenReturn("dayPairs");
+		subject = new TrelloPairsRepositoryCustomImpl(mongoTemplate);
+	}
+
+	@Test
+	public void testSyncDays() {
+		DayPairs yesterday = getDayPairs(1, "dev1", "dev2");
+		DayPairs twoDaysAgo = getDayPairs(2, "dev1", "dev3");
+		Date today = getDayPairs(0).getDate();
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("dayPairs"))).thenReturn(Arrays.asList(getStoredDocument(getDayPairs(2, "dev1", "dev4"))));
+		when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(WriteRequest.Type.UPDATE, 1, Integer.valueOf(1),
+				Arrays.asList(new BulkWriteUpsert(1, new BsonInt32(1)))));
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+		SyncReport report = subject.syncDays("board1", Arrays.asList(yesterday, twoDaysAgo), today);
+
+		verify(bulkOperations).remove(Query.query(Criteria.where("date").is(today).and("boardId").is("board1")));
+		verify(bulkOperations).upsert(eq(Query.query(Criteria.where("date").is(yesterday.getDate()).and("boardId").is("board1"))), update.capture());
+		Document set = (Document) update.getValue().getUpdateObject().get("$set");
+		assertThat(update.getValue().getUpdateObject().keySet(), is(Collections.singleton("$set")));
+		assertThat(set.get("date"), is(yesterday.getDate()));
+		assertThat(set.containsKey("_id"), is(false));
+		assertThat(((Document) set.get("pairs")).get("track1"), is(new Document("devs", Arrays.asList("dev1", "dev2")).append("track", "")
+				.append("flags", 0)));
+		verify(bulkOperations).upsert(eq(Query.query(Criteria.where("date").is(twoDaysAgo.getDate()).and("boardId").is("board1"))), any(Update.class));
+		assertThat(report.getInserted(), is(1));
+		assertThat(report.isInserted(yesterday.getDate()), is(true));
+		assertThat(report.isInserted(twoDaysAgo.getDate()), is(false));
+		assertThat(report.getReplaced(), is(1));
+		assertThat(report.isReplaced(twoDaysAgo.getDate()), is(true));
+		assertThat(report.getUnchanged(), is(0));
+	}
+
+	@Test
+	public void testSyncDaysSkipsUnchangedDays() {
+		DayPairs yesterday = getDayPairs(1, "dev1", "dev2");
+		DayPairs twoDaysAgo = getDayPairs(2, "dev1", "dev3");
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("dayPairs"))).thenReturn(Arrays.asList(getStoredDocument(getDayPairs(1, "dev1", "dev2")),
+				getStoredDocument(getDayPairs(2, "dev1", "dev4"))));
+		when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(WriteRequest.Type.UPDATE, 1, Integer.valueOf(1),
+				Collections.emptyList()));
+
+		SyncReport report = subject.syncDays("board1", Arrays.asList(yesterday, twoDaysAgo), null);
+
+		verify(bulkOperations, never()).upsert(eq(Query.query(Criteria.where("date").is(yesterday.getDate()).and("boardId").is("board1"))), any(Update.class));
+		verify(bulkOperations).upsert(eq(Query.query(Criteria.where("date").is(twoDaysAgo.getDate()).and("boardId").is("board1"))), any(Update.class));
+		assertThat(report.getInserted(), is(0));
+		assertThat(report.isReplaced(yesterday.getDate()), is(false));
+		assertThat(report.isReplaced(twoDaysAgo.getDate()), is(true));
+		assertThat(report.getUnchanged(), is(1));
+	}
+
+	@Test
+	public void testSyncUnchangedDaysWritesNothing() {
+		DayPairs yesterday = getDayPairs(1, "dev1", "dev2");
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("dayPairs"))).thenReturn(Arrays.asList(getStoredDocument(getDayPairs(1, "dev1", "dev2"))));
+
+		SyncReport report = subject.syncDays("board1", Arrays.asList(yesterday), null);
+
+		verify(bulkOperations, never()).execute();
+		assertThat(report.getReplaced(), is(0));
+		assertThat(report.getUnchanged(), is(1));
+	}
+
+	@Test
+	public void testSyncDaysKeepsRemovedDateOfGivenDay() {
+		DayPairs today = getDayPairs(0, "dev1", "dev2");
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("dayPairs"))).thenReturn(Arrays.asList(getStoredDocument(getDayPairs(0))));
+		when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(WriteRequest.Type.UPDATE, 1, Integer.valueOf(1),
+				Collections.emptyList()));
+
+		SyncReport report = subject.syncDays(null, Arrays.asList(today), today.getDate());
+
+		verify(bulkOperations, never()).remove(any(Query.class));
+		verify(bulkOperations).upsert(eq(Query.query(Criteria.where("date").is(today.getDate()))), any(Update.class));
+		assertThat(report.isReplaced(today.getDate()), is(true));
+		assertThat(report.getUnchanged(), is(0));
+	}
+
+	@Test
+	public void testSyncNothing() {
+		SyncReport report = subject.syncDays("board1", Collections.emptyList(), null);
+
+		verify(mongoTemplate, never()).bulkOps(BulkMode.UNORDERED, DayPairs.class);
+		assertThat(report.getInserted(), is(0));
+	}
+
+	@Test
+	public void testAssignBoardToDaysWithoutBoard() {
+		when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(DayPairs.class))).thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+		assertThat(subject.assignBoardToDaysWithoutBoard("board1"), is(2L));
+
+		verify(mongoTemplate).updateMulti(Query.query(Criteria.where("boardId").is(null)), Update.update("boardId", "board1"), DayPairs.class);
+	}
+
+	@Test
+	public void testEnsureDateIndex() {
+		IndexOperations indexOperations = mock(IndexOperations.class);
+		when(mongoTemplate.indexOps(DayPairs.class)).thenReturn(indexOperations);
+		ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+
+		subject.ensureDateIndex();
+
+		verify(indexOperations).ensureIndex(index.capture());
+		assertThat(index.getValue().getIndexKeys(), is(new Document("boardId", 1).append("date", -1)));
+		assertThat(index.getValue().getIndexOptions().get("unique"), is(true));
+	}
+
+	private MappingMongoConverter getConverter() {
+		MongoCustomConversions conversions = new MongoConfiguration().customConversions();
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		MappingMongoConverter result = new MappingMongoConverter(mock(DbRefResolver.class), mappingContext);
+		result.setCustomConversions(conversions);
+		result.afterPropertiesSet();
+		return result;
+	}
+
+	private Document getStoredDocument(DayPairs dayPairs) {
+		Document result = new Document("_id", "stored");
+		getConverter().write(dayPairs, result);
+		return result;
+	}
+
+	private DayPairs getDayPairs(int daysBack, String firstDevId, String secondDevId) {
+		DayPairs result = getDayPairs(daysBack);
+		result.addPair("track1", new Pair(Arrays.asList(new Developer(firstDevId), new Developer(secondDevId))));
+		return result;
+	}
+
+	private DayPairs getDayPairs(int daysBack) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.clear(Calendar.MINUTE);
+		calendar.clear(Calendar.SECOND);
+		calendar.clear(Calendar.MILLISECOND);
+		calendar.add(Calendar.DATE, -daysBack);
+		DayPairs result = new DayPairs();
+		result.setDate(calendar.getTime());
+		return result;
+	}
+}
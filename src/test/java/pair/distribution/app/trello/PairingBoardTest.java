@@ -1,12 +1,19 @@
 package pair.distribution.app.trello;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 
+import java.text.ParseException;
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import com.julienvey.trello.domain.Card;
+
 import pair.distribution.app.trello.PairingBoard;
+import pair.distribution.app.trello.entities.Developer;
 
 public class PairingBoardTest {
 
@@ -18,5 +25,36 @@ public class PairingBoardTest {
 		assertThat(pairingBoard.parseDevOpsCompanies("devops:company,companyb"), is(new String[] {"company", "companyb"}));
 		assertThat(pairingBoard.parseDevOpsCompanies("devops:"), is(new String[] {}));
 	}
-	
+
+	@Test
+	public void testDevelopersAndCompaniesAreInterned() {
+		PairingBoard pairingBoard = new PairingBoard(null, null, null);
+
+		assertThat(pairingBoard.getDeveloperById("dev1"), is(sameInstance(pairingBoard.getDeveloperById("dev1"))));
+		assertThat(pairingBoard.getCompanyByName("Company "), is(sameInstance(pairingBoard.getCompanyByName("company"))));
+		assertThat(pairingBoard.getCompanies().size(), is(1));
+	}
+
+	@Test
+	public void testGetDevs() {
+		PairingBoard pairingBoard = new PairingBoard(null, null, null);
+		Developer dev1 = pairingBoard.getDeveloperById("dev1");
+		pairingBoard.getDeveloperById("dev2");
+		Developer dev3 = pairingBoard.getDeveloperById("dev3");
+		Card devsCard = new Card();
+		devsCard.setName("devs");
+		devsCard.setIdMembers(Arrays.asList("dev3", "dev1"));
+
+		pairingBoard.syncDevs(Arrays.asList(devsCard));
+
+		assertThat(pairingBoard.getDevs(), is(Arrays.asList(dev1, dev3)));
+		assertThat(pairingBoard.getDevs().get(0), is(sameInstance(dev1)));
+	}
+
+	@Test
+	public void testGetDateFromListNameWithNote() throws ParseException {
+		PairingBoard pairingBoard = new PairingBoard(null, null, null);
+
+		assertThat(pairingBoard.getDateFromListName("Pairs (12-03-2018 moved)"), is(pairingBoard.getDateFromListName("Pairs (12-03-2018)")));
+	}
 }
@@ -8,11 +8,14 @@ import static org.junit.Assert.assertThat;
 
 import java.lang.reflect.Field;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import org.springframework.data.annotation.Transient;
@@ -161,14 +164,99 @@ public class DayPairsTest {
 	}
 	
 	@Test
-	public void testSimpleDateFormatNotPersisted() throws NoSuchFieldException, SecurityException {
+	public void testGetTrackByPairAfterChanges() {
 		DayPairs pairs = new DayPairs();
-		Field dateFormatterField = pairs.getClass().getDeclaredField("dateFormatter");
-		dateFormatterField.setAccessible(true);
-		Transient annotation = dateFormatterField.getAnnotation(Transient.class);
+		Pair pair = new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")));
+		Pair otherPair = new Pair(Arrays.asList(new Developer("dev3"), new Developer("dev4")));
+		pairs.addPair("track", pair);
+		
+		assertThat(pairs.getTrackByPair(otherPair), is(nullValue()));
+		
+		pairs.addPair("otherTrack", otherPair);
+		
+		assertThat(pairs.getTrackByPair(new Pair(Arrays.asList(new Developer("dev3"), new Developer("dev4")))), is(equalTo("otherTrack")));
+		assertThat(pairs.getTrackByPair(pair), is(equalTo("track")));
+	}
+	
+	@Test
+	public void testGetSoloPair() {
+		DayPairs pairs = new DayPairs();
+		Pair soloPair = new Pair(Arrays.asList(new Developer("dev3")));
+		pairs.addPair("track", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2"))));
+		
+		assertThat(pairs.getSoloPair(), is(nullValue()));
+		
+		pairs.addPair("soloTrack", soloPair);
+		
+		assertThat(pairs.getSoloPair(), is(soloPair));
+	}
+	
+	@Test
+	public void testGetTrackByPairAfterChangedPairAddedAgain() {
+		DayPairs pairs = new DayPairs();
+		Pair pair = new Pair(Arrays.asList(new Developer("dev1")));
+		pairs.addPair("track", pair);
+		
+		assertThat(pairs.getTrackByPair(pair), is(equalTo("track")));
+		assertThat(pairs.getSoloPair(), is(pair));
+		
+		pair.addDev(new Developer("dev2"));
+		pairs.addPair("track", pair);
+		
+		assertThat(pairs.getTrackByPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")))), is(equalTo("track")));
+		assertThat(pairs.getTrackByPair(new Pair(Arrays.asList(new Developer("dev1")))), is(nullValue()));
+		assertThat(pairs.getSoloPair(), is(nullValue()));
+	}
+	
+	@Test
+	public void testGetTrackByPairOfEqualPairsTakesFirstTrack() {
+		DayPairs pairs = new DayPairs();
+		Map<String, Pair> trackPairs = new LinkedHashMap<>();
+		trackPairs.put("track", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2"))));
+		trackPairs.put("otherTrack", new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2"))));
+		pairs.setPairs(trackPairs);
+		
+		assertThat(pairs.getTrackByPair(new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")))), is(equalTo("track")));
+	}
+	
+	@Test
+	public void testEpochDayNotPersisted() throws NoSuchFieldException, SecurityException {
+		DayPairs pairs = new DayPairs();
+		Field epochDayField = pairs.getClass().getDeclaredField("epochDay");
+		Transient annotation = epochDayField.getAnnotation(Transient.class);
 		
 		assertThat(annotation, is(not(nullValue())));
 	}
+
+	@Test
+	public void testSetDateKeepsEpochDay() {
+		DayPairs pairs = new DayPairs();
+		pairs.setDate(getYesterdayDate());
+
+		assertThat(pairs.getLocalDate(), is(LocalDate.now().minusDays(1)));
+		assertThat(pairs.getEpochDay(), is(LocalDate.now().minusDays(1).toEpochDay()));
+		assertThat(pairs.compareTo(new DayPairs()), is(-1));
+		assertThat(pairs.equals(new DayPairs()), is(false));
+	}
+
+	@Test
+	public void testFormatAndParse() throws ParseException {
+		Date date = DayPairs.parseDate("05-03-2019");
+
+		assertThat(DayPairs.formatDate(date), is("05-03-2019"));
+		assertThat(DayPairs.parseDate("5-3-2019"), is(date));
+	}
+
+	@Test
+	public void testParseIgnoresTextAfterDate() throws ParseException {
+		assertThat(DayPairs.parseDate("05-03-2019 moved"), is(DayPairs.parseDate("05-03-2019")));
+		assertThat(DayPairs.parseDate(" 5-3-2019, holiday"), is(DayPairs.parseDate("05-03-2019")));
+	}
+
+	@Test(expected = ParseException.class)
+	public void testParseInvalidDate() throws ParseException {
+		DayPairs.parseDate("2019-03-05");
+	}
 	
 	private Date getYesterdayDate() {
 		Calendar cal = Calendar.getInstance();
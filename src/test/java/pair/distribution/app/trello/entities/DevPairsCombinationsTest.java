@@ -56,6 +56,20 @@ public class DevPairsCombinationsTest {
 		assertThat(devPairCombinations.getPastPairs(0), is(Arrays.asList(pairsListFromDevs.get(0).getPairByTrack("track2"))));
 	}
 	
+	@Test
+	public void testAddNewestDay() {
+		List<Developer> standardDevs = getStandardDevs();
+		DevPairCombinations devPairCombinations = new DevPairCombinations(new ArrayList<>(getPairsListFromDevs(standardDevs)));
+		DayPairs newestDay = new DayPairs();
+		newestDay.addPair("track1", new Pair(Arrays.asList(standardDevs.get(0), standardDevs.get(2)), false, "track1"));
+
+		devPairCombinations.addNewestDay(newestDay);
+
+		assertThat(devPairCombinations.getPastPairByTrack(0, "track1"), is(newestDay.getPairByTrack("track1")));
+		assertThat(devPairCombinations.getPastPairs(1), is(getPairsListFromDevs(standardDevs).get(0).getPairs().values().stream().collect(Collectors.toList())));
+		assertThat(devPairCombinations.getPairs().size(), is(7));
+	}
+
 	@Test
 	public void testGetPastPairsForMissingHistory() {
 		DevPairCombinations devPairCombinations = new DevPairCombinations(getPairsListFromDevs(getStandardDevs()));
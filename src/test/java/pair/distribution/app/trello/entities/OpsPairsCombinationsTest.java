@@ -158,6 +158,23 @@ public class OpsPairsCombinationsTest {
 		assertThat(devPairCombinations.isRotationTime(Arrays.asList("track1"), standardDevs, true), is(false));
 	}
 	
+	@Test
+	public void testForCompanyKeepsOriginalUnchanged() {
+		List<Developer> standardDevs = getStandardDevs();
+		DayPairs pairs = new DayPairs();
+		pairs.setDate(getDateWeeksBefore(1));
+		pairs.addPair("track1", new Pair(Arrays.asList(standardDevs.get(0), standardDevs.get(1)), true, "track1"));
+
+		OpsPairCombinations devPairCombinations = new OpsPairCombinations(Arrays.asList(pairs));
+		Company company = new Company("myCompany");
+		company.setDevOpsRotationStrategy("weekly");
+		OpsPairCombinations companyPairCombinations = devPairCombinations.forCompany(company);
+
+		assertThat(companyPairCombinations.isRotationTime(Arrays.asList("track1"), standardDevs, false), is(true));
+		assertThat(companyPairCombinations.getPastPairByTrack(0, "track1"), is(pairs.getPairByTrack("track1")));
+		assertThat(devPairCombinations.isRotationTime(Arrays.asList("track1"), standardDevs, false), is(false));
+	}
+
 	@Test
 	public void testIsRotationForDifferentWeekPairs() {
 		List<Developer> standardDevs = getStandardDevs();
@@ -0,0 +1,89 @@
+package pair.distribution.app.trello.entities;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PairHistoryTest {
+
+	@Test
+	public void testDaysSortedNewestFirst() {
+		List<DayPairs> pastPairs = getPairsListFromDevs(getStandardDevs());
+
+		PairHistory subject = new PairHistory(pastPairs);
+
+		assertThat(subject.size(), is(3));
+		assertThat(subject.getDay(0), is(pastPairs.get(2)));
+		assertThat(subject.getDay(2), is(pastPairs.get(0)));
+		assertThat(subject.getDay(3), is(nullValue()));
+		assertThat(pastPairs.get(0).getDate().before(pastPairs.get(2).getDate()), is(true));
+	}
+
+	@Test
+	public void testPairsSplitByOps() {
+		List<DayPairs> pastPairs = getPairsListFromDevs(getStandardDevs());
+		Pair opsPair = pastPairs.get(2).getPairByTrack("track1");
+
+		PairHistory subject = new PairHistory(pastPairs);
+
+		assertThat(subject.getPairs(true), is(Arrays.asList(opsPair)));
+		assertThat(subject.getPairs(false).size(), is(5));
+		assertThat(subject.getPastPairs(0, true), is(Arrays.asList(opsPair)));
+		assertThat(subject.getPastPairs(0, false), is(Arrays.asList(pastPairs.get(2).getPairByTrack("track2"))));
+		assertThat(subject.getPastPairs(1, true).isEmpty(), is(true));
+		assertThat(subject.getPastPairs(3, false), is(nullValue()));
+	}
+
+	@Test
+	public void testAddNewestDay() {
+		List<Developer> devs = getStandardDevs();
+		PairHistory subject = new PairHistory(getPairsListFromDevs(devs));
+		List<Pair> devPairsBefore = subject.getPairs(false);
+		DayPairs newestDay = new DayPairs();
+		newestDay.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(2)), false, "track1"));
+
+		subject.addNewestDay(newestDay);
+
+		assertThat(subject.getDay(0), is(newestDay));
+		assertThat(subject.getPastPairs(0, false), is(Arrays.asList(newestDay.getPairByTrack("track1"))));
+		assertThat(subject.getPastPairs(1, true).size(), is(1));
+		assertThat(subject.getPairs(false).size(), is(6));
+		assertThat(devPairsBefore.size(), is(5));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPairsAreReadOnly() {
+		new PairHistory(getPairsListFromDevs(getStandardDevs())).getPairs(false).remove(0);
+	}
+
+	private List<DayPairs> getPairsListFromDevs(List<Developer> devs) {
+		List<DayPairs> result = new ArrayList<>();
+		for (int i = 3; i > 0; i--) {
+			DayPairs pairs = new DayPairs();
+			pairs.setDate(getPastDate(i));
+			pairs.addPair("track1", new Pair(Arrays.asList(devs.get(0), devs.get(1)), i == 1, "track1"));
+			pairs.addPair("track2", new Pair(Arrays.asList(devs.get(2), devs.get(3)), false, "track2"));
+			result.add(pairs);
+		}
+		return result;
+	}
+
+	private List<Developer> getStandardDevs() {
+		return Arrays.asList(new Developer("dev1"), new Developer("dev2"), new Developer("dev3"), new Developer("dev4"));
+	}
+
+	private Date getPastDate(int daysCountToPast) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTime(new Date());
+		cal.add(Calendar.DATE, -(daysCountToPast));
+		return cal.getTime();
+	}
+}
@@ -7,6 +7,7 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Test;
 
@@ -23,6 +24,15 @@ public class PairTest {
 		assertThat(subject.getDevs(), is(equalTo(Arrays.asList(new Developer("dev1"), new Developer("dev2")))));
 	}
 	
+	@Test
+	public void testGetDevsReturnsCopy()  {
+		Pair subject = new Pair(Arrays.asList(new Developer("dev1"), new Developer("dev2")));
+		
+		Collections.reverse(subject.getDevs());
+		
+		assertThat(subject.getFirstDev(), is(equalTo(new Developer("dev1"))));
+	}
+	
 	@Test
 	public void testGetAndSetDevsWithNullValues()  {
 		Pair subject = new Pair();
@@ -38,6 +48,16 @@ public class PairTest {
 		assertThat(subject.getDevs(), is(equalTo(Arrays.asList(new Developer("dev1")))));
 	}
 	
+	@Test
+	public void testAddDevKeepsDevsSorted()  {
+		Pair subject = new Pair(Arrays.asList(new Developer("dev2")));
+		
+		subject.addDev(new Developer("dev1"));
+		
+		assertThat(subject.getDevs(), is(equalTo(Arrays.asList(new Developer("dev1"), new Developer("dev2")))));
+		assertThat(subject, is(equalTo(new Pair(Arrays.asList(new Developer("dev2"), new Developer("dev1"))))));
+	}
+	
 	@Test
 	public void testAddDevWithNull()  {
 		Pair subject = new Pair();
@@ -0,0 +1,73 @@
+package pair.distribution.app.web;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import pair.distribution.app.helpers.PairingBoardRegistry;
+import pair.distribution.app.persistence.mongodb.TrelloPairsRepository;
+
+public class TrelloPairsControllerTest {
+
+	private PairingBoardRegistry pairingBoardRegistry;
+	private TrelloPairsController subject;
+
+	@Before
+	public void setUp() {
+		pairingBoardRegistry = mock(PairingBoardRegistry.class);
+		subject = new TrelloPairsController(mock(TrelloPairsRepository.class), pairingBoardRegistry);
+	}
+
+	@Test
+	public void testUnknownEngineIsBadRequest() {
+		try {
+			subject.pairsJson(false, "fastest", null);
+			fail();
+		} catch (ResponseStatusException e) {
+			assertThat(e.getStatus(), is(HttpStatus.BAD_REQUEST));
+			verifyZeroInteractions(pairingBoardRegistry);
+		}
+	}
+
+	@Test
+	public void testUnknownEngineIsBadRequestForForecast() {
+		try {
+			subject.forecast(3, false, "fastest", null);
+			fail();
+		} catch (ResponseStatusException e) {
+			assertThat(e.getStatus(), is(HttpStatus.BAD_REQUEST));
+			verifyZeroInteractions(pairingBoardRegistry);
+		}
+	}
+
+	@Test
+	public void testSaturatedBoardIsServiceUnavailable() {
+		when(pairingBoardRegistry.resolveBoardId(null)).thenReturn("board1");
+		when(pairingBoardRegistry.execute(eq("board1"), any(Callable.class))).thenThrow(new RejectedExecutionException("queue full"));
+
+		try {
+			subject.pairsJson(false, "greedy", null);
+			fail();
+		} catch (RejectedExecutionException e) {
+			ResponseEntity<String> response = subject.boardBusy(e);
+
+			assertThat(response.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+			assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), is("30"));
+		}
+	}
+}